@@ -14,6 +14,7 @@ import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -156,13 +157,19 @@ public class StreamsMain {
     private static void parallelStreams() {
         final int availableProcessors = Runtime.getRuntime().availableProcessors();
 
-        final String usedCores = Integer.toString(availableProcessors / 2);
+        final int usedCores = Math.max(1, availableProcessors / 2);
         System.out.println("Running with " + usedCores + " cores");
 
-        System.setProperty("java.util.concurrent.ForkJoinPool.common.parallelism", usedCores);
-
-        DAILY_WISH.parallelStream()
-                  .forEach(item -> System.out.println(Thread.currentThread().getName() + ": " + item));
+        // the common pool parallelism cannot be changed once the pool is initialized, so the parallel stream
+        // is started from a task of a dedicated pool - and it is split on that pool
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(usedCores);
+        try {
+            forkJoinPool.submit(() -> DAILY_WISH.parallelStream()
+                                                .forEach(item -> System.out.println(Thread.currentThread().getName() + ": " + item)))
+                        .join();
+        } finally {
+            forkJoinPool.shutdown();
+        }
 
         Stream<String> dynamicParallelStream =
                 StreamSupport.stream(DAILY_WISH.spliterator(), DAILY_WISH.size() > 100);
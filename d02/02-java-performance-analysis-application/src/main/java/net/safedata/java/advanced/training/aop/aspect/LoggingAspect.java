@@ -1,23 +1,19 @@
 package net.safedata.java.advanced.training.aop.aspect;
 
+import net.safedata.java.advanced.training.aop.logging.AsyncLogPipeline;
+import net.safedata.java.advanced.training.aop.logging.LogEventType;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
-import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
-
 /**
- * Aspect for logging execution of controller endpoints
+ * Aspect for logging execution of controller endpoints; the events are only published here, they are rendered and
+ * written by the {@link AsyncLogPipeline} thread
  *
  * @author bogdan.solga
  */
@@ -27,54 +23,37 @@ public class LoggingAspect {
     private static final Logger LOGGER = LoggerFactory.getLogger(LoggingAspect.class);
     private static final boolean DEBUG_ENABLED = LOGGER.isDebugEnabled();
 
-    /*
-    @Autowired
-    private EmailsService emailsService;    // if needed
-    */
+    private final AsyncLogPipeline logPipeline;
+
+    public LoggingAspect(final AsyncLogPipeline logPipeline) {
+        this.logPipeline = logPipeline;
+    }
 
     @Pointcut("within(net.safedata.java.advanced.training.controller.ProfiledProductController)")
     public void loggingPointcut() {}
 
     @AfterThrowing(pointcut = "loggingPointcut()", throwing = "exception")
     public void logAfterThrowing(final JoinPoint joinPoint, final Throwable exception) {
-        final Signature signature = joinPoint.getSignature();
-        final String signatureName = signature.getName();
-        final String declaringTypeName = signature.getDeclaringTypeName();
-        final Throwable exceptionCause = exception.getCause();
-        LOGGER.warn("{} in {}.{}(), with cause '{}'", exception.getClass().getSimpleName(), declaringTypeName,
-                signatureName, exceptionCause);
+        logPipeline.publish(LogEventType.FAILURE, joinPoint.getSignature(), null, null, exception);
     }
 
     @Around("loggingPointcut()")
     public Object logAround(final ProceedingJoinPoint joinPoint) throws Throwable {
-        final Signature signature = joinPoint.getSignature();
-        final String signatureName = signature.getName();
-        final String runningClass = signature.getDeclaringTypeName();
-        final Object[] parameters = joinPoint.getArgs();
-
         if (DEBUG_ENABLED) {
-            LOGGER.debug("[In]: {}.{}() with argument[s] '{}'", runningClass, signatureName, Arrays.toString(parameters));
+            logPipeline.publish(LogEventType.ENTRY, joinPoint.getSignature(), joinPoint.getArgs(), null, null);
         }
 
         try {
             final Object result = joinPoint.proceed();
             if (DEBUG_ENABLED) {
-                LOGGER.debug("[Out]: {}.{}() with result '{}'", runningClass, signatureName, result);
+                logPipeline.publish(LogEventType.EXIT, joinPoint.getSignature(), null, result, null);
             }
 
             return result;
         } catch (final Exception exception) {
-            sendExceptionViaEmail((MethodSignature) signature, parameters);
+            logPipeline.publish(LogEventType.ERROR_REPORT, joinPoint.getSignature(), joinPoint.getArgs(), null,
+                    exception);
             throw exception;
         }
     }
-
-    private void sendExceptionViaEmail(final MethodSignature methodSignature, final Object[] parameters) {
-        final Map<String, Object> parametersMap = new HashMap<>(parameters.length);
-
-        final AtomicInteger atomicInteger = new AtomicInteger(0);
-        Arrays.stream(methodSignature.getParameterNames())
-              .forEach(name -> parametersMap.put(name, parameters[atomicInteger.getAndIncrement()]));
-        //emailsService.sendException(signatureName, exception, parametersMap);
-    }
 }
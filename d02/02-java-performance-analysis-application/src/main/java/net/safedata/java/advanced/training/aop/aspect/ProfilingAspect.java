@@ -1,66 +1,91 @@
 package net.safedata.java.advanced.training.aop.aspect;
 
+import net.safedata.java.advanced.training.aop.jfr.MethodAllocationEvent;
+import net.safedata.java.advanced.training.aop.jfr.MethodExecutionEvent;
+import net.safedata.java.advanced.training.aop.metrics.MethodProfile;
+import net.safedata.java.advanced.training.aop.metrics.MethodProfiles;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 
-import java.util.Arrays;
+import java.lang.management.ManagementFactory;
 
 @Aspect
 public class ProfilingAspect {
     private static final Logger LOGGER = LoggerFactory.getLogger(ProfilingAspect.class);
 
-    private static final long BYTES_IN_MB = 1048576;
+    // the HotSpot extension exposes the CPU time and the bytes allocated by the current thread - except for the
+    // virtual threads, for which it returns -1, so their executions are only counted as unmeasured
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final MethodProfiles methodProfiles;
 
     @Value("${execution.time.tracing}")
     private boolean executionTimeTracing;
 
+    public ProfilingAspect(final MethodProfiles methodProfiles) {
+        this.methodProfiles = methodProfiles;
+    }
+
     @Around("@annotation(net.safedata.java.advanced.training.aop.profiling.ExecutionTimeProfiling)")
     public Object profileMethodExecutionTime(final ProceedingJoinPoint pjp) throws Throwable {
-        try {
-            final long start = executionTimeTracing ? System.currentTimeMillis() : 0L;
-            final StringBuffer buffer = new StringBuffer();
-            if (executionTimeTracing) {
-                buffer.append(pjp.getSignature().getDeclaringTypeName()) // package name
-                      .append(".")
-                      .append(pjp.getSignature().getName()); // class name
-            }
+        if (!executionTimeTracing) {
+            return proceed(pjp);
+        }
 
-            final Object retVal = pjp.proceed();
-            if (executionTimeTracing) {
-                LOGGER.info("{}, {}", buffer.append(": ")
-                                            .append(System.currentTimeMillis() - start)
-                                            .append(" ms"),
-                        Arrays.asList(pjp.getArgs()));
-            }
+        final MethodProfile profile = methodProfiles.get(((MethodSignature) pjp.getSignature()).getMethod());
+        if (!profile.sampleExecution()) {
+            return proceed(pjp);
+        }
 
-            return retVal;
-        } catch (final Exception exception) {
-            LOGGER.error(exception.getMessage(), exception);
-            throw exception;
+        final MethodExecutionEvent event = new MethodExecutionEvent();
+        event.begin();
+        final long cpuTimeStart = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+        final long start = System.nanoTime();
+        try {
+            return proceed(pjp);
+        } finally {
+            final long wallTime = System.nanoTime() - start;
+            final long cpuTimeEnd = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+            final long cpuTime = cpuTimeStart >= 0 && cpuTimeEnd >= 0 ? cpuTimeEnd - cpuTimeStart : -1;
+            profile.recordExecution(wallTime, cpuTime);
+            event.complete(profile.getName(), pjp.getArgs(), cpuTime);
         }
     }
 
+    // only the calling thread is measured - the allocations of the tasks handed to other threads are not included
     @Around("@annotation(net.safedata.java.advanced.training.aop.profiling.MemoryProfiling)")
     public Object profileMemory(final ProceedingJoinPoint pjp) throws Throwable {
-        final Runtime runtime = Runtime.getRuntime();
+        final MethodProfile profile = methodProfiles.get(((MethodSignature) pjp.getSignature()).getMethod());
+        if (!profile.sampleAllocation()) {
+            return proceed(pjp);
+        }
 
-        final Signature signature = pjp.getSignature();
-        final String methodName = signature.getName();
+        final MethodAllocationEvent event = new MethodAllocationEvent();
+        event.begin();
+        final long allocatedBefore = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
         try {
-            long usedMemory = (runtime.totalMemory() - runtime.freeMemory()) / BYTES_IN_MB;
-            LOGGER.info("JVM memory in use before '{}': {} MB", methodName, usedMemory);
-
-            Object methodReturnValue = pjp.proceed();
-
-            usedMemory = (runtime.totalMemory() - runtime.freeMemory()) / BYTES_IN_MB;
-            LOGGER.info("JVM memory in use after '{}': {} MB", methodName, usedMemory);
+            return proceed(pjp);
+        } finally {
+            // a negative counter means that the measurement is not supported or disabled
+            final long allocatedAfter = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+            final long allocated = allocatedBefore >= 0 && allocatedAfter >= 0 ? allocatedAfter - allocatedBefore : -1;
+            profile.recordAllocation(allocated);
+            if (allocated >= 0) {
+                event.complete(profile.getName(), pjp.getArgs(), allocated);
+                LOGGER.debug("'{}' allocated {} bytes", profile.getName(), allocated);
+            }
+        }
+    }
 
-            return methodReturnValue;
+    private static Object proceed(final ProceedingJoinPoint pjp) throws Throwable {
+        try {
+            return pjp.proceed();
         } catch (final Exception exception) {
             LOGGER.error(exception.getMessage(), exception);
             throw exception;
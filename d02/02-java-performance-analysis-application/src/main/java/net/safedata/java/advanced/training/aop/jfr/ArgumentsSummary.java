@@ -0,0 +1,51 @@
+package net.safedata.java.advanced.training.aop.jfr;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+
+/**
+ * Short, bounded rendering of the arguments of a profiled invocation
+ */
+final class ArgumentsSummary {
+
+    private static final int MAX_ARGUMENT_LENGTH = 64;
+    private static final int MAX_ARGUMENTS_LENGTH = 256;
+
+    private ArgumentsSummary() {
+    }
+
+    // the simple values are rendered (truncated), the arrays and the collections only by their type and size
+    static String summarize(final Object[] arguments) {
+        final StringBuilder summary = new StringBuilder();
+        for (final Object argument : arguments) {
+            if (!summary.isEmpty()) {
+                summary.append(", ");
+            }
+            summary.append(summarize(argument));
+            if (summary.length() >= MAX_ARGUMENTS_LENGTH) {
+                summary.setLength(MAX_ARGUMENTS_LENGTH);
+                break;
+            }
+        }
+        return summary.toString();
+    }
+
+    private static String summarize(final Object argument) {
+        if (argument == null) {
+            return "null";
+        }
+        if (argument instanceof CharSequence || argument instanceof Number || argument instanceof Boolean ||
+                argument instanceof Enum<?>) {
+            final String value = argument.toString();
+            return value.length() <= MAX_ARGUMENT_LENGTH ? value : value.substring(0, MAX_ARGUMENT_LENGTH) + "...";
+        }
+        if (argument instanceof Collection<?> collection) {
+            return argument.getClass().getSimpleName() + "[" + collection.size() + "]";
+        }
+        if (argument.getClass().isArray()) {
+            return argument.getClass().getComponentType().getSimpleName() + "[" +
+                    Array.getLength(argument) + "]";
+        }
+        return argument.getClass().getSimpleName();
+    }
+}
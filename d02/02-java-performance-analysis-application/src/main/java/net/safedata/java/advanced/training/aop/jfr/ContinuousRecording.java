@@ -0,0 +1,122 @@
+package net.safedata.java.advanced.training.aop.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+
+/**
+ * A continuous flight recording, using the JDK 'default' settings plus the profiling events; it is bounded by the max
+ * age and size, so it can be kept running and dumped to a local file when something interesting happens
+ */
+@Component
+public class ContinuousRecording {
+
+    private static final String RECORDING_NAME = "java-advanced-training";
+    private static final DateTimeFormatter DUMP_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path directory;
+    private final Duration maxAge;
+    private final DataSize maxSize;
+
+    private Recording recording;
+    private Path lastDump;
+
+    public ContinuousRecording(@Value("${execution.jfr.directory:recordings}") final String directory,
+                               @Value("${execution.jfr.max-age:30m}") final Duration maxAge,
+                               @Value("${execution.jfr.max-size:250MB}") final DataSize maxSize) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+    }
+
+    // a stopped recording is replaced by a new one
+    public synchronized RecordingStatus start() {
+        if (isRunning()) {
+            return getStatus();
+        }
+        if (recording != null) {
+            recording.close();
+        }
+
+        recording = new Recording(defaultConfiguration());
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSize.toBytes());
+        recording.enable(MethodExecutionEvent.class);
+        recording.enable(MethodAllocationEvent.class);
+        recording.start();
+
+        return getStatus();
+    }
+
+    // the data of a stopped recording is kept, so it can still be dumped
+    public synchronized RecordingStatus stop() {
+        if (isRunning()) {
+            recording.stop();
+        }
+        return getStatus();
+    }
+
+    public synchronized Optional<RecordingStatus> dump() {
+        if (recording == null) {
+            return Optional.empty();
+        }
+
+        final Path file = directory.resolve("recording-" + LocalDateTime.now().format(DUMP_TIMESTAMP) + ".jfr");
+        try {
+            Files.createDirectories(directory);
+            recording.dump(file);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        lastDump = file;
+        return Optional.of(getStatus());
+    }
+
+    public synchronized RecordingStatus getStatus() {
+        if (recording == null) {
+            return new RecordingStatus("NEW", null, maxAge, maxSize.toBytes(), 0, null);
+        }
+        return new RecordingStatus(recording.getState().name(), recording.getStartTime(), maxAge, maxSize.toBytes(),
+                recording.getSize(), lastDump == null ? null : lastDump.toString());
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    private static Configuration defaultConfiguration() {
+        try {
+            return Configuration.getConfiguration("default");
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (final ParseException e) {
+            throw new IllegalStateException("The default JFR configuration cannot be parsed", e);
+        }
+    }
+}
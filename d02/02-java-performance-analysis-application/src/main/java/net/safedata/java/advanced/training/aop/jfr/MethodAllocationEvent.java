@@ -0,0 +1,41 @@
+package net.safedata.java.advanced.training.aop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted for a profiled invocation of a {@code @MemoryProfiling} method
+ */
+@Name("net.safedata.MethodAllocation")
+@Label("Method Allocation")
+@Category({"Java Advanced Training", "Profiling"})
+@Description("The bytes allocated by the calling thread during a profiled invocation of a @MemoryProfiling method")
+@StackTrace(false)
+public class MethodAllocationEvent extends Event {
+
+    @Label("Method")
+    private String method;
+
+    @Label("Arguments")
+    private String arguments;
+
+    @Label("Allocated")
+    @DataAmount
+    private long allocated;
+
+    // the fields are only filled in for the events which are enabled and above their threshold
+    public void complete(final String method, final Object[] arguments, final long allocatedBytes) {
+        end();
+        if (shouldCommit()) {
+            this.method = method;
+            this.arguments = ArgumentsSummary.summarize(arguments);
+            this.allocated = allocatedBytes;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package net.safedata.java.advanced.training.aop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Emitted for a profiled invocation of an {@code @ExecutionTimeProfiling} method; the event duration is the wall time
+ */
+@Name("net.safedata.MethodExecution")
+@Label("Method Execution")
+@Category({"Java Advanced Training", "Profiling"})
+@Description("A profiled invocation of an @ExecutionTimeProfiling method")
+@StackTrace(false)
+public class MethodExecutionEvent extends Event {
+
+    @Label("Method")
+    private String method;
+
+    @Label("Arguments")
+    private String arguments;
+
+    @Label("CPU Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long cpuTime;
+
+    // the fields are only filled in for the events which are enabled and above their threshold
+    public void complete(final String method, final Object[] arguments, final long cpuTimeNanos) {
+        end();
+        if (shouldCommit()) {
+            this.method = method;
+            this.arguments = ArgumentsSummary.summarize(arguments);
+            this.cpuTime = cpuTimeNanos;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package net.safedata.java.advanced.training.aop.jfr;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The size is the one of the recorded data currently kept on disk
+ */
+public record RecordingStatus(String state, Instant startTime, Duration maxAge, long maxSizeBytes, long sizeBytes,
+                              String lastDump) {
+}
@@ -0,0 +1,157 @@
+package net.safedata.java.advanced.training.aop.logging;
+
+import jakarta.annotation.PreDestroy;
+import net.safedata.java.advanced.training.aop.aspect.LoggingAspect;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves the rendering and the writing of the aspect log events off the request threads - the events are published
+ * into a {@link LogRingBuffer}, which is drained in batches by a single background thread. The writer parks when
+ * the buffer is empty and it is woken up by the next publisher.
+ */
+@Component
+public class AsyncLogPipeline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoggingAspect.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /*
+    @Autowired
+    private EmailsService emailsService;    // if needed
+    */
+
+    private final LogRingBuffer ringBuffer;
+    private final OverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final Thread writer;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder blockedPublishes = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder renderingFailures = new LongAdder();
+
+    private volatile boolean running = true;
+    private volatile boolean writerParked;
+
+    public AsyncLogPipeline(@Value("${execution.logging.capacity:8192}") final int capacity,
+                            @Value("${execution.logging.overflow-policy:DROP}") final OverflowPolicy overflowPolicy,
+                            @Value("${execution.logging.batch-size:256}") final int batchSize) {
+        this.ringBuffer = new LogRingBuffer(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.batchSize = batchSize;
+
+        this.writer = Thread.ofPlatform()
+                            .name("aspect-log-writer")
+                            .daemon(true)
+                            .start(this::writeEvents);
+    }
+
+    public void publish(final LogEventType type, final Signature signature, final Object[] arguments,
+                        final Object result, final Throwable exception) {
+        long position = ringBuffer.claim();
+        if (position < 0) {
+            if (overflowPolicy == OverflowPolicy.DROP) {
+                dropped.increment();
+                return;
+            }
+
+            blockedPublishes.increment();
+            do {
+                if (!running) {
+                    dropped.increment();
+                    return;
+                }
+                LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+                position = ringBuffer.claim();
+            } while (position < 0);
+        }
+
+        ringBuffer.get(position)
+                  .set(type, signature, arguments, result, exception);
+        ringBuffer.publish(position);
+        published.increment();
+
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    public LoggingStats getStats() {
+        final long writtenEvents = written.sum();
+        final long publishedEvents = published.sum();
+        return new LoggingStats(overflowPolicy, ringBuffer.capacity(), Math.max(0, publishedEvents - writtenEvents),
+                publishedEvents, writtenEvents, dropped.sum(), blockedPublishes.sum(), batches.sum(),
+                renderingFailures.sum());
+    }
+
+    // the events which are already published are still written
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void writeEvents() {
+        while (running || !ringBuffer.isEmpty()) {
+            final int drained = ringBuffer.drain(this::write, batchSize);
+            if (drained > 0) {
+                written.add(drained);
+                batches.increment();
+                continue;
+            }
+
+            // the flag is raised before the last check, so a publisher cannot miss the parked writer
+            writerParked = true;
+            if (running && ringBuffer.isEmpty()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            writerParked = false;
+        }
+    }
+
+    private void write(final LogEvent event) {
+        try {
+            final Signature signature = event.signature;
+            switch (event.type) {
+                case ENTRY -> LOGGER.debug("[In]: {}.{}() with argument[s] '{}'", signature.getDeclaringTypeName(),
+                        signature.getName(), Arrays.toString(event.arguments));
+                case EXIT -> LOGGER.debug("[Out]: {}.{}() with result '{}'", signature.getDeclaringTypeName(),
+                        signature.getName(), event.result);
+                case FAILURE -> LOGGER.warn("{} in {}.{}(), with cause '{}'",
+                        event.exception.getClass().getSimpleName(), signature.getDeclaringTypeName(),
+                        signature.getName(), event.exception.getCause());
+                case ERROR_REPORT -> sendExceptionViaEmail((MethodSignature) signature, event.arguments,
+                        event.exception);
+            }
+        } catch (final RuntimeException e) {
+            renderingFailures.increment();
+        }
+    }
+
+    private void sendExceptionViaEmail(final MethodSignature methodSignature, final Object[] parameters,
+                                       final Throwable exception) {
+        final String[] parameterNames = methodSignature.getParameterNames();
+        final Map<String, Object> parametersMap = new HashMap<>(parameters.length);
+        for (int index = 0; index < parameters.length; index++) {
+            parametersMap.put(parameterNames[index], parameters[index]);
+        }
+        //emailsService.sendException(methodSignature.getName(), exception, parametersMap);
+    }
+}
@@ -0,0 +1,30 @@
+package net.safedata.java.advanced.training.aop.logging;
+
+import org.aspectj.lang.Signature;
+
+/**
+ * A reusable slot of the {@link LogRingBuffer} - the producers only store references, the rendering is left to the
+ * consumer thread. The arguments and the results are therefore rendered as they are when the event is consumed.
+ */
+final class LogEvent {
+
+    LogEventType type;
+    Signature signature;
+    Object[] arguments;
+    Object result;
+    Throwable exception;
+
+    void set(final LogEventType type, final Signature signature, final Object[] arguments, final Object result,
+             final Throwable exception) {
+        this.type = type;
+        this.signature = signature;
+        this.arguments = arguments;
+        this.result = result;
+        this.exception = exception;
+    }
+
+    // the references are released as soon as the event is written
+    void clear() {
+        set(null, null, null, null, null);
+    }
+}
@@ -0,0 +1,12 @@
+package net.safedata.java.advanced.training.aop.logging;
+
+public enum LogEventType {
+    // the invocation of an endpoint, with its arguments
+    ENTRY,
+    // the result of an endpoint
+    EXIT,
+    // an exception thrown by an endpoint
+    FAILURE,
+    // the report of a failed invocation, with its named arguments
+    ERROR_REPORT
+}
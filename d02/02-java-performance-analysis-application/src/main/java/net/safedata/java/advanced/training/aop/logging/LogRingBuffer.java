@@ -0,0 +1,93 @@
+package net.safedata.java.advanced.training.aop.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free multi-producer / single-consumer queue of pre-allocated events (Vyukov style) - every slot has a
+ * sequence telling whether it is free for the producer of a position or published for the consumer, so a producer
+ * only competes with the other producers, on a CAS of the tail.
+ */
+final class LogRingBuffer {
+
+    private final LogEvent[] events;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    // only accessed by the consumer thread
+    private long head;
+
+    LogRingBuffer(final int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The capacity must be a power of two");
+        }
+
+        this.events = new LogEvent[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int index = 0; index < capacity; index++) {
+            events[index] = new LogEvent();
+            sequences.set(index, index);
+        }
+    }
+
+    // the claimed position, or -1 if the buffer is full
+    long claim() {
+        while (true) {
+            final long position = tail.get();
+            final long available = sequences.get(index(position)) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+            } else if (available < 0) {
+                return -1;
+            }
+        }
+    }
+
+    LogEvent get(final long position) {
+        return events[index(position)];
+    }
+
+    void publish(final long position) {
+        sequences.set(index(position), position + 1);
+    }
+
+    // consumer only
+    int drain(final Consumer<LogEvent> consumer, final int maxEvents) {
+        int drained = 0;
+        while (drained < maxEvents) {
+            final int index = index(head);
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+
+            final LogEvent event = events[index];
+            try {
+                consumer.accept(event);
+            } finally {
+                event.clear();
+                sequences.lazySet(index, head + events.length);
+                head++;
+                drained++;
+            }
+        }
+        return drained;
+    }
+
+    boolean isEmpty() {
+        return sequences.get(index(head)) != head + 1;
+    }
+
+    int capacity() {
+        return events.length;
+    }
+
+    private int index(final long position) {
+        return (int) position & mask;
+    }
+}
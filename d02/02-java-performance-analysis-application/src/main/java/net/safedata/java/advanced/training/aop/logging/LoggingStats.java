@@ -0,0 +1,8 @@
+package net.safedata.java.advanced.training.aop.logging;
+
+/**
+ * The blocked publishes are the ones which had to wait for a free slot
+ */
+public record LoggingStats(OverflowPolicy overflowPolicy, int capacity, long queued, long published, long written,
+                           long dropped, long blockedPublishes, long batches, long renderingFailures) {
+}
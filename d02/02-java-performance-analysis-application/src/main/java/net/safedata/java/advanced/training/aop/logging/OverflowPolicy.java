@@ -0,0 +1,8 @@
+package net.safedata.java.advanced.training.aop.logging;
+
+public enum OverflowPolicy {
+    // the events published while the buffer is full are dropped, and counted
+    DROP,
+    // the publishers wait for a free slot
+    BLOCK
+}
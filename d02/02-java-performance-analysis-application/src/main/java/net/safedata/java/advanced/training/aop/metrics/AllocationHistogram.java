@@ -0,0 +1,76 @@
+package net.safedata.java.advanced.training.aop.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of the allocated bytes, with power of two buckets - the bucket 'i' counts the values in
+ * [2^(i-1), 2^i), the bucket 0 counts the allocation-free invocations. The negative values are the invocations
+ * which could not be measured (e.g. on virtual threads), they are only counted.
+ */
+public class AllocationHistogram {
+
+    private static final int BUCKETS = Long.SIZE + 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder unmeasured = new LongAdder();
+    private final LongAdder totalBytes = new LongAdder();
+    private final LongAccumulator maxBytes = new LongAccumulator(Math::max, 0);
+
+    public void record(final long bytes) {
+        if (bytes < 0) {
+            unmeasured.increment();
+            return;
+        }
+
+        buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(bytes));
+        count.increment();
+        totalBytes.add(bytes);
+        maxBytes.accumulate(bytes);
+    }
+
+    public AllocationStats getStats(final String method) {
+        final long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            counts[index] = buckets.get(index);
+            total += counts[index];
+        }
+
+        final Map<Long, Long> histogram = new LinkedHashMap<>();
+        for (int index = 0; index < BUCKETS; index++) {
+            if (counts[index] > 0) {
+                histogram.put(upperBound(index), counts[index]);
+            }
+        }
+
+        final long invocations = count.sum();
+        final long bytes = totalBytes.sum();
+        final long max = maxBytes.get();
+        return new AllocationStats(method, invocations, bytes, invocations == 0 ? 0 : bytes / invocations,
+                Math.min(percentile(counts, total, 0.5), max), Math.min(percentile(counts, total, 0.99), max), max,
+                unmeasured.sum(), histogram);
+    }
+
+    // the upper bound of the bucket holding the percentile
+    private static long percentile(final long[] counts, final long total, final double percentile) {
+        final long rank = (long) Math.ceil(total * percentile);
+
+        long seen = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            seen += counts[index];
+            if (seen >= rank && seen > 0) {
+                return upperBound(index);
+            }
+        }
+        return 0;
+    }
+
+    private static long upperBound(final int bucket) {
+        return bucket == 0 ? 0 : bucket == Long.SIZE ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+}
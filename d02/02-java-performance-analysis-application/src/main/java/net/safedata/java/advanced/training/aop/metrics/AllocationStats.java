@@ -0,0 +1,12 @@
+package net.safedata.java.advanced.training.aop.metrics;
+
+import java.util.Map;
+
+/**
+ * The percentiles are the upper bounds of their histogram buckets; the histogram maps a bucket upper bound (in bytes)
+ * to the number of invocations which allocated up to it. The unmeasured invocations ran on virtual threads, whose
+ * allocations the JVM does not report - they are not in the other numbers.
+ */
+public record AllocationStats(String method, long invocations, long totalBytes, long averageBytes, long p50Bytes,
+                              long p99Bytes, long maxBytes, long unmeasuredInvocations, Map<Long, Long> histogram) {
+}
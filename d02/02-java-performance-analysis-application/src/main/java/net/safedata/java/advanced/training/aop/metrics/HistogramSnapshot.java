@@ -0,0 +1,63 @@
+package net.safedata.java.advanced.training.aop.metrics;
+
+/**
+ * Immutable copy of the counts of a {@link LatencyHistogram}, merged from all its stripes; subtracting an older
+ * snapshot gives the distribution of the values recorded in between
+ */
+public final class HistogramSnapshot {
+
+    static final HistogramSnapshot EMPTY = new HistogramSnapshot(new long[LatencyHistogram.BUCKETS], 0);
+
+    private final long[] counts;
+    private final long totalCount;
+    private final long max;
+
+    HistogramSnapshot(final long[] counts, final long max) {
+        this.counts = counts;
+        this.max = max;
+
+        long total = 0;
+        for (final long count : counts) {
+            total += count;
+        }
+        this.totalCount = total;
+    }
+
+    // the values recorded since the given (older) snapshot; the max is the one of the highest non-empty bucket
+    public HistogramSnapshot minus(final HistogramSnapshot older) {
+        final long[] difference = new long[counts.length];
+        long intervalMax = 0;
+        for (int index = 0; index < counts.length; index++) {
+            difference[index] = counts[index] - older.counts[index];
+            if (difference[index] > 0) {
+                intervalMax = Math.min(LatencyHistogram.bucketUpperBound(index), max);
+            }
+        }
+        return new HistogramSnapshot(difference, intervalMax);
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long valueAtPercentile(final double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(totalCount * percentile / 100));
+        long seen = 0;
+        for (int index = 0; index < counts.length; index++) {
+            seen += counts[index];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.bucketUpperBound(index), max);
+            }
+        }
+        return max;
+    }
+
+    public LatencyStats toStats() {
+        return new LatencyStats(totalCount, valueAtPercentile(50), valueAtPercentile(90), valueAtPercentile(99),
+                valueAtPercentile(99.9), max);
+    }
+}
@@ -0,0 +1,70 @@
+package net.safedata.java.advanced.training.aop.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Lock-free log-linear (HDR style) histogram of durations in nanoseconds - the values below 64 have their own buckets,
+ * every higher power of two range is split in 32 linear buckets, so the recorded values are kept with a relative
+ * error below 3.2%. The counts are striped by thread, to keep the concurrent recorders off the same cache lines.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_VALUES = SUB_BUCKETS * 2;
+
+    static final int BUCKETS = bucketIndex(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        final int stripesCount = Integer.highestOneBit(Math.min(4, Runtime.getRuntime().availableProcessors()));
+        this.stripes = new AtomicLongArray[stripesCount];
+        for (int index = 0; index < stripesCount; index++) {
+            stripes[index] = new AtomicLongArray(BUCKETS);
+        }
+        this.stripeMask = stripesCount - 1;
+    }
+
+    public void record(final long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+
+        stripes[(int) Thread.currentThread().threadId() & stripeMask].incrementAndGet(bucketIndex(nanos));
+        max.accumulate(nanos);
+    }
+
+    public HistogramSnapshot snapshot() {
+        final long[] counts = new long[BUCKETS];
+        for (final AtomicLongArray stripe : stripes) {
+            for (int index = 0; index < BUCKETS; index++) {
+                counts[index] += stripe.get(index);
+            }
+        }
+        return new HistogramSnapshot(counts, max.get());
+    }
+
+    static int bucketIndex(final long value) {
+        if (value < LINEAR_VALUES) {
+            return (int) value;
+        }
+
+        final int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    // the highest value which is counted in the bucket
+    static long bucketUpperBound(final int bucket) {
+        if (bucket < LINEAR_VALUES) {
+            return bucket;
+        }
+
+        final int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        final long subBucket = (bucket & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
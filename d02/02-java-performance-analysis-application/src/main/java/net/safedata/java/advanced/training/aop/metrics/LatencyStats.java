@@ -0,0 +1,7 @@
+package net.safedata.java.advanced.training.aop.metrics;
+
+/**
+ * The durations are in nanoseconds
+ */
+public record LatencyStats(long count, long p50, long p90, long p99, long p999, long max) {
+}
@@ -0,0 +1,11 @@
+package net.safedata.java.advanced.training.aop.metrics;
+
+import java.time.Instant;
+
+/**
+ * The latencies recorded for a method since the start of the current interval. The CPU times of the executions on
+ * virtual threads are not reported by the JVM, so they are only counted as unmeasured.
+ */
+public record MethodLatencyStats(String method, Instant intervalStart, LatencyStats wallTime, LatencyStats cpuTime,
+                                 long unmeasuredCpuTimes) {
+}
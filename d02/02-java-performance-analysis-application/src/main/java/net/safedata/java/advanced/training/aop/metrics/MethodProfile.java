@@ -0,0 +1,95 @@
+package net.safedata.java.advanced.training.aop.metrics;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The profiling data of an annotated method. The latencies are reported by intervals - the histograms are cumulative,
+ * so a reset only takes their snapshots as the baselines of the next interval and the recording stays lock-free.
+ */
+public class MethodProfile {
+
+    private final String name;
+    private final AllocationHistogram allocations = new AllocationHistogram();
+    private final LatencyHistogram wallTime = new LatencyHistogram();
+    private final LatencyHistogram cpuTime = new LatencyHistogram();
+    private final LongAdder unmeasuredCpuTimes = new LongAdder();
+
+    private final Sampler executionSampler;
+    private final Sampler allocationSampler;
+
+    private Instant intervalStart = Instant.now();
+    private HistogramSnapshot wallTimeBaseline = HistogramSnapshot.EMPTY;
+    private HistogramSnapshot cpuTimeBaseline = HistogramSnapshot.EMPTY;
+    private long unmeasuredCpuTimesBaseline;
+
+    MethodProfile(final String name, final SamplingPolicy samplingPolicy) {
+        this.name = name;
+        this.executionSampler = new Sampler(samplingPolicy);
+        this.allocationSampler = new Sampler(samplingPolicy);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean sampleExecution() {
+        return executionSampler.shouldSample();
+    }
+
+    public boolean sampleAllocation() {
+        return allocationSampler.shouldSample();
+    }
+
+    public void setSamplingPolicy(final SamplingPolicy samplingPolicy) {
+        executionSampler.setPolicy(samplingPolicy);
+        allocationSampler.setPolicy(samplingPolicy);
+    }
+
+    public SamplingStats getSamplingStats() {
+        final SamplingPolicy policy = executionSampler.getPolicy();
+        return new SamplingStats(name, policy.mode(), policy.value(), executionSampler.getSampled(),
+                executionSampler.getSkipped(), allocationSampler.getSampled(), allocationSampler.getSkipped());
+    }
+
+    // negative bytes mean that the allocations could not be measured
+    public void recordAllocation(final long bytes) {
+        allocations.record(bytes);
+    }
+
+    // a negative CPU time means that it could not be measured
+    public void recordExecution(final long wallTimeNanos, final long cpuTimeNanos) {
+        wallTime.record(wallTimeNanos);
+        if (cpuTimeNanos < 0) {
+            unmeasuredCpuTimes.increment();
+        } else {
+            cpuTime.record(cpuTimeNanos);
+        }
+    }
+
+    public AllocationStats getAllocationStats() {
+        return allocations.getStats(name);
+    }
+
+    public synchronized MethodLatencyStats getLatencyStats() {
+        return new MethodLatencyStats(name, intervalStart, wallTime.snapshot().minus(wallTimeBaseline).toStats(),
+                cpuTime.snapshot().minus(cpuTimeBaseline).toStats(),
+                unmeasuredCpuTimes.sum() - unmeasuredCpuTimesBaseline);
+    }
+
+    // closes the current interval, returning its latencies
+    public synchronized MethodLatencyStats resetLatencyStats() {
+        final HistogramSnapshot wallTimeSnapshot = wallTime.snapshot();
+        final HistogramSnapshot cpuTimeSnapshot = cpuTime.snapshot();
+        final long unmeasuredCpuTimesSnapshot = unmeasuredCpuTimes.sum();
+        final MethodLatencyStats stats = new MethodLatencyStats(name, intervalStart,
+                wallTimeSnapshot.minus(wallTimeBaseline).toStats(), cpuTimeSnapshot.minus(cpuTimeBaseline).toStats(),
+                unmeasuredCpuTimesSnapshot - unmeasuredCpuTimesBaseline);
+
+        intervalStart = Instant.now();
+        wallTimeBaseline = wallTimeSnapshot;
+        cpuTimeBaseline = cpuTimeSnapshot;
+        unmeasuredCpuTimesBaseline = unmeasuredCpuTimesSnapshot;
+        return stats;
+    }
+}
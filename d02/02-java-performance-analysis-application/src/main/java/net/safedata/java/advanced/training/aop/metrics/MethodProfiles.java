@@ -0,0 +1,88 @@
+package net.safedata.java.advanced.training.aop.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * The profiles of the annotated methods, created on their first invocation. A sampling policy can be set for a method
+ * before its first invocation as well, as the policies are kept by the method names ('SimpleClassName.methodName').
+ */
+@Component
+public class MethodProfiles {
+
+    private final Map<Method, MethodProfile> profiles = new ConcurrentHashMap<>();
+    private final Map<String, SamplingPolicy> samplingPolicies = new ConcurrentHashMap<>();
+
+    private final SamplingPolicy defaultSamplingPolicy;
+
+    public MethodProfiles(@Value("${execution.sampling.mode:ALL}") final SamplingMode defaultSamplingMode,
+                          @Value("${execution.sampling.value:0}") final int defaultSamplingValue) {
+        this.defaultSamplingPolicy = new SamplingPolicy(defaultSamplingMode, defaultSamplingValue);
+    }
+
+    public MethodProfile get(final Method method) {
+        final MethodProfile profile = profiles.get(method);
+        return profile != null ? profile : createProfile(method);
+    }
+
+    public synchronized SamplingStats setSamplingPolicy(final String method, final SamplingPolicy samplingPolicy) {
+        samplingPolicies.put(method, samplingPolicy);
+        profiles.values()
+                .stream()
+                .filter(profile -> profile.getName().equals(method))
+                .forEach(profile -> profile.setSamplingPolicy(samplingPolicy));
+
+        return getSamplingStats().stream()
+                                 .filter(stats -> stats.method().equals(method))
+                                 .findFirst()
+                                 .orElseGet(() -> new SamplingStats(method, samplingPolicy.mode(),
+                                         samplingPolicy.value(), 0, 0, 0, 0));
+    }
+
+    public List<SamplingStats> getSamplingStats() {
+        return sortedProfiles().map(MethodProfile::getSamplingStats)
+                               .toList();
+    }
+
+    public List<AllocationStats> getAllocationStats() {
+        return sortedProfiles().map(MethodProfile::getAllocationStats)
+                               .toList();
+    }
+
+    public List<MethodLatencyStats> getLatencyStats() {
+        return sortedProfiles().map(MethodProfile::getLatencyStats)
+                               .toList();
+    }
+
+    public List<MethodLatencyStats> resetLatencyStats() {
+        return sortedProfiles().map(MethodProfile::resetLatencyStats)
+                               .toList();
+    }
+
+    private Stream<MethodProfile> sortedProfiles() {
+        return profiles.values()
+                       .stream()
+                       .sorted(Comparator.comparing(MethodProfile::getName));
+    }
+
+    // synchronized with the policy changes, so a profile cannot miss a policy set concurrently with its creation
+    private synchronized MethodProfile createProfile(final Method method) {
+        final MethodProfile existing = profiles.get(method);
+        if (existing != null) {
+            return existing;
+        }
+
+        final String name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        final MethodProfile profile = new MethodProfile(name, samplingPolicies.getOrDefault(name,
+                defaultSamplingPolicy));
+        profiles.put(method, profile);
+        return profile;
+    }
+}
@@ -0,0 +1,58 @@
+package net.safedata.java.advanced.training.aop.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which invocations are profiled; the decision allocates nothing, so the skipped invocations only pay for a
+ * random number or a clock read
+ */
+final class Sampler {
+
+    private volatile SamplingPolicy policy;
+
+    private final AtomicLong nextSampleTime = new AtomicLong(System.nanoTime());
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    Sampler(final SamplingPolicy policy) {
+        this.policy = policy;
+    }
+
+    boolean shouldSample() {
+        final SamplingPolicy current = policy;
+        final boolean sample = switch (current.mode()) {
+            case ALL -> true;
+            case ONE_IN_N -> ThreadLocalRandom.current().nextInt(current.value()) == 0;
+            case RATE_PER_SECOND -> acquirePermit(current.intervalNanos());
+            case NONE -> false;
+        };
+
+        (sample ? sampled : skipped).increment();
+        return sample;
+    }
+
+    SamplingPolicy getPolicy() {
+        return policy;
+    }
+
+    void setPolicy(final SamplingPolicy policy) {
+        this.policy = policy;
+    }
+
+    long getSampled() {
+        return sampled.sum();
+    }
+
+    long getSkipped() {
+        return skipped.sum();
+    }
+
+    // the permits are spaced by the interval; a concurrent caller which loses the race is not sampled
+    private boolean acquirePermit(final long intervalNanos) {
+        final long now = System.nanoTime();
+        final long next = nextSampleTime.get();
+        return now - next >= 0 && nextSampleTime.compareAndSet(next, now + intervalNanos);
+    }
+}
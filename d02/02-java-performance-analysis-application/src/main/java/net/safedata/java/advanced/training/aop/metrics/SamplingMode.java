@@ -0,0 +1,12 @@
+package net.safedata.java.advanced.training.aop.metrics;
+
+public enum SamplingMode {
+    // every invocation is profiled
+    ALL,
+    // one in 'value' invocations is profiled, randomly picked
+    ONE_IN_N,
+    // at most 'value' invocations per second are profiled
+    RATE_PER_SECOND,
+    // no invocation is profiled
+    NONE
+}
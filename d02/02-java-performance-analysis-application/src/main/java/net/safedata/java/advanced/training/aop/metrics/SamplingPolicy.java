@@ -0,0 +1,22 @@
+package net.safedata.java.advanced.training.aop.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The value is the 'N' of {@link SamplingMode#ONE_IN_N} or the rate of {@link SamplingMode#RATE_PER_SECOND}
+ */
+public record SamplingPolicy(SamplingMode mode, int value) {
+
+    public SamplingPolicy {
+        if (mode == null) {
+            throw new IllegalArgumentException("The sampling mode is mandatory");
+        }
+        if ((mode == SamplingMode.ONE_IN_N || mode == SamplingMode.RATE_PER_SECOND) && value <= 0) {
+            throw new IllegalArgumentException("The sampling value must be positive for " + mode);
+        }
+    }
+
+    long intervalNanos() {
+        return TimeUnit.SECONDS.toNanos(1) / value;
+    }
+}
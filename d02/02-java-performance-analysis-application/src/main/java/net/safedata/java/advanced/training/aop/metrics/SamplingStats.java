@@ -0,0 +1,8 @@
+package net.safedata.java.advanced.training.aop.metrics;
+
+/**
+ * The execution time and the allocations of an invocation are sampled independently
+ */
+public record SamplingStats(String method, SamplingMode mode, int value, long sampledExecutions,
+                            long skippedExecutions, long sampledAllocations, long skippedAllocations) {
+}
@@ -2,6 +2,8 @@ package net.safedata.java.advanced.training.config;
 
 import net.safedata.java.advanced.training.aop.aspect.LoggingAspect;
 import net.safedata.java.advanced.training.aop.aspect.ProfilingAspect;
+import net.safedata.java.advanced.training.aop.logging.AsyncLogPipeline;
+import net.safedata.java.advanced.training.aop.metrics.MethodProfiles;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
@@ -11,12 +13,12 @@ import org.springframework.context.annotation.EnableAspectJAutoProxy;
 public class AspectJConfig {
 
     @Bean
-    public LoggingAspect loggingAspect() {
-        return new LoggingAspect();
+    public LoggingAspect loggingAspect(final AsyncLogPipeline asyncLogPipeline) {
+        return new LoggingAspect(asyncLogPipeline);
     }
 
     @Bean
-    public ProfilingAspect profiler() {
-        return new ProfilingAspect();
+    public ProfilingAspect profiler(final MethodProfiles methodProfiles) {
+        return new ProfilingAspect(methodProfiles);
     }
 }
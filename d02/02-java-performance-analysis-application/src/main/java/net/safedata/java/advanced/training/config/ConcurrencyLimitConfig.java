@@ -0,0 +1,24 @@
+package net.safedata.java.advanced.training.config;
+
+import net.safedata.java.advanced.training.loadshedding.AdaptiveConcurrencyLimiter;
+import net.safedata.java.advanced.training.loadshedding.ConcurrencyLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ConcurrencyLimitConfig {
+
+    // only the long running endpoints are limited
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            final AdaptiveConcurrencyLimiter limiter,
+            @Value("${execution.concurrency-limit.enabled:true}") final boolean enabled) {
+        final FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(limiter));
+        registration.addUrlPatterns("/product/long/*", "/profiled/product/long/*");
+        registration.setEnabled(enabled);
+        return registration;
+    }
+}
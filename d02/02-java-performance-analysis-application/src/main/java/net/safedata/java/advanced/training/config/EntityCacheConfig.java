@@ -0,0 +1,31 @@
+package net.safedata.java.advanced.training.config;
+
+import net.safedata.java.advanced.training.domain.repository.ProductRepository;
+import net.safedata.java.advanced.training.service.cache.TinyLfuCache;
+import net.safedata.java.advanced.training.service.cache.TinyLfuSpringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class EntityCacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(@Value("${product.entity-cache.by-id.capacity:10000}") final int byIdCapacity,
+                                     @Value("${product.entity-cache.by-id.ttl:10m}") final Duration byIdTtl,
+                                     @Value("${product.entity-cache.queries.capacity:100}") final int queriesCapacity,
+                                     @Value("${product.entity-cache.queries.ttl:1m}") final Duration queriesTtl) {
+        final SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                new TinyLfuSpringCache(ProductRepository.PRODUCTS_BY_ID, new TinyLfuCache<>(byIdCapacity, byIdTtl)),
+                new TinyLfuSpringCache(ProductRepository.PRODUCT_QUERIES, new TinyLfuCache<>(queriesCapacity, queriesTtl))));
+        return cacheManager;
+    }
+}
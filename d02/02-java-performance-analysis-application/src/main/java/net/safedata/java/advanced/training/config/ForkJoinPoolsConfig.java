@@ -0,0 +1,50 @@
+package net.safedata.java.advanced.training.config;
+
+import net.safedata.java.advanced.training.service.concurrent.ForkJoinPoolRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+@Configuration
+public class ForkJoinPoolsConfig {
+
+    private static final int PROCESSORS_COUNT = Runtime.getRuntime().availableProcessors();
+
+    // the splittable, CPU bound work - the summations and the parallel streams
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool cpuAggregationPool(
+            @Value("${execution.fork-join.cpu-aggregation.parallelism:0}") final int parallelism) {
+        return newPool(ForkJoinPoolRegistry.CPU_AGGREGATION, parallelism, false);
+    }
+
+    // the short, never joined CompletableFuture stages - FIFO ordered
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool asyncGluePool(
+            @Value("${execution.fork-join.async-glue.parallelism:0}") final int parallelism) {
+        return newPool(ForkJoinPoolRegistry.ASYNC_GLUE, parallelism, true);
+    }
+
+    @Bean
+    public ForkJoinPoolRegistry forkJoinPoolRegistry(@Qualifier("cpuAggregationPool") final ForkJoinPool cpuAggregationPool,
+                                                     @Qualifier("asyncGluePool") final ForkJoinPool asyncGluePool) {
+        final Map<String, ForkJoinPool> pools = new LinkedHashMap<>();
+        pools.put(ForkJoinPoolRegistry.CPU_AGGREGATION, cpuAggregationPool);
+        pools.put(ForkJoinPoolRegistry.ASYNC_GLUE, asyncGluePool);
+        return new ForkJoinPoolRegistry(pools);
+    }
+
+    // 0 --> one thread per core
+    private static ForkJoinPool newPool(final String name, final int parallelism, final boolean asyncMode) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : PROCESSORS_COUNT, pool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(name + "-worker-" + thread.getPoolIndex());
+            return thread;
+        }, null, asyncMode);
+    }
+}
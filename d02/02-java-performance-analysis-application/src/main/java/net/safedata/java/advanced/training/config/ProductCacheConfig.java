@@ -0,0 +1,29 @@
+package net.safedata.java.advanced.training.config;
+
+import net.safedata.java.advanced.training.model.Product;
+import net.safedata.java.advanced.training.service.cache.ProductListingKey;
+import net.safedata.java.advanced.training.service.cache.TinyLfuCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class ProductCacheConfig {
+
+    @Bean
+    public TinyLfuCache<ProductListingKey, List<Product>> productListingsCache(
+            @Value("${product.cache.listings.capacity:1000}") final int capacity,
+            @Value("${product.cache.listings.ttl:1m}") final Duration ttl) {
+        return new TinyLfuCache<>(capacity, ttl);
+    }
+
+    @Bean
+    public TinyLfuCache<Integer, Product> productsByIdCache(
+            @Value("${product.cache.products-by-id.capacity:10000}") final int capacity,
+            @Value("${product.cache.products-by-id.ttl:5m}") final Duration ttl) {
+        return new TinyLfuCache<>(capacity, ttl);
+    }
+}
@@ -0,0 +1,30 @@
+package net.safedata.java.advanced.training.config;
+
+import net.safedata.java.advanced.training.service.aggregation.PriceSummation;
+import net.safedata.java.advanced.training.service.store.HeapProductStore;
+import net.safedata.java.advanced.training.service.store.OffHeapProductStore;
+import net.safedata.java.advanced.training.service.store.ProductStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class ProductStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "product.store.type", havingValue = "off-heap", matchIfMissing = true)
+    public ProductStore offHeapProductStore(@Value("${product.store.capacity:1000000}") final int capacity,
+                                            @Value("${product.store.max-age:0s}") final Duration maxAge,
+                                            final PriceSummation priceSummation) {
+        return new OffHeapProductStore(capacity, maxAge, priceSummation);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "product.store.type", havingValue = "heap")
+    public ProductStore heapProductStore(final PriceSummation priceSummation) {
+        return new HeapProductStore(priceSummation);
+    }
+}
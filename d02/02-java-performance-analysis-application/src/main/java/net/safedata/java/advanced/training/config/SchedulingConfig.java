@@ -1,5 +1,6 @@
 package net.safedata.java.advanced.training.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -16,7 +17,8 @@ public class SchedulingConfig {
 
     @Primary
     @Bean
-    public ThreadPoolTaskScheduler threadPoolTaskScheduler() {
+    public ThreadPoolTaskScheduler threadPoolTaskScheduler(
+            @Value("${spring.threads.virtual.enabled:false}") final boolean virtualThreads) {
         final ThreadPoolTaskScheduler threadPoolTaskScheduler = new ThreadPoolTaskScheduler();
 
         threadPoolTaskScheduler.setPoolSize(PROCESSORS_COUNT / 2);
@@ -26,6 +28,14 @@ public class SchedulingConfig {
         threadPoolTaskScheduler.setAwaitTerminationSeconds(10);
         threadPoolTaskScheduler.setRemoveOnCancelPolicy(true);
         threadPoolTaskScheduler.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+
+        // the pool threads are virtual, while a job is still rescheduled only when its previous run completes
+        if (virtualThreads) {
+            threadPoolTaskScheduler.setThreadFactory(Thread.ofVirtual()
+                                                           .name("scheduled-virtual-thread-", 1)
+                                                           .factory());
+        }
+
         threadPoolTaskScheduler.initialize();
 
         return threadPoolTaskScheduler;
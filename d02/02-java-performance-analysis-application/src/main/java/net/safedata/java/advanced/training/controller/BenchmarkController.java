@@ -0,0 +1,53 @@
+package net.safedata.java.advanced.training.controller;
+
+import net.safedata.java.advanced.training.service.benchmark.BenchmarkStatus;
+import net.safedata.java.advanced.training.service.benchmark.BenchmarkWorkload;
+import net.safedata.java.advanced.training.service.benchmark.ExecutionModeBenchmark;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/benchmark")
+public class BenchmarkController {
+
+    private final ExecutionModeBenchmark executionModeBenchmark;
+
+    @Autowired
+    public BenchmarkController(final ExecutionModeBenchmark executionModeBenchmark) {
+        this.executionModeBenchmark = executionModeBenchmark;
+    }
+
+    // e.g. POST /benchmark/execution-modes?workload=LONG_RUNNING&requests=200&concurrency=50 --> 202, with the
+    // status URL in the 'Location' header
+    @PostMapping("/execution-modes")
+    public ResponseEntity<BenchmarkStatus> startBenchmark(@RequestParam final BenchmarkWorkload workload,
+                                                          @RequestParam(defaultValue = "200") final int requests,
+                                                          @RequestParam(defaultValue = "50") final int concurrency) {
+        final BenchmarkStatus status = executionModeBenchmark.start(workload, requests, concurrency);
+        return ResponseEntity.accepted()
+                             .location(ServletUriComponentsBuilder.fromCurrentRequestUri()
+                                                                  .path("/{id}")
+                                                                  .buildAndExpand(status.id())
+                                                                  .toUri())
+                             .body(status);
+    }
+
+    @GetMapping("/execution-modes")
+    public List<BenchmarkStatus> allBenchmarks() {
+        return executionModeBenchmark.getAllStatuses();
+    }
+
+    @GetMapping("/execution-modes/{id}")
+    public ResponseEntity<BenchmarkStatus> benchmarkStatus(@PathVariable final long id) {
+        return ResponseEntity.of(executionModeBenchmark.getStatus(id));
+    }
+}
@@ -1,18 +1,41 @@
 package net.safedata.java.advanced.training.controller;
 
 import net.safedata.java.advanced.training.domain.model.ProductEntity;
+import net.safedata.java.advanced.training.loadshedding.AdaptiveConcurrencyLimiter;
+import net.safedata.java.advanced.training.loadshedding.ConcurrencyLimitStats;
 import net.safedata.java.advanced.training.service.ProductService;
+import net.safedata.java.advanced.training.service.aggregation.PriceStats;
 import net.safedata.java.advanced.training.model.Product;
+import net.safedata.java.advanced.training.service.bulk.BulkInsertReport;
+import net.safedata.java.advanced.training.service.cache.CacheStats;
+import net.safedata.java.advanced.training.service.concurrent.BlockingTaskExecutor;
+import net.safedata.java.advanced.training.service.concurrent.BlockingTaskStats;
+import net.safedata.java.advanced.training.service.concurrent.ForkJoinPoolRegistry;
+import net.safedata.java.advanced.training.service.concurrent.ForkJoinPoolStats;
+import net.safedata.java.advanced.training.service.concurrent.SingleFlightStats;
+import net.safedata.java.advanced.training.service.export.ExportFormat;
+import net.safedata.java.advanced.training.service.export.ProductExportService;
+import net.safedata.java.advanced.training.service.paging.ProductPage;
+import net.safedata.java.advanced.training.service.paging.ProductPagingService;
+import net.safedata.java.advanced.training.service.sales.BroadcastStats;
+import net.safedata.java.advanced.training.service.sales.SalesBroadcaster;
+import net.safedata.java.advanced.training.service.sales.SalesLongPollRegistry;
+import net.safedata.java.advanced.training.service.sales.SalesSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ForkJoinPool;
 
@@ -21,10 +44,30 @@ import java.util.concurrent.ForkJoinPool;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductExportService productExportService;
+    private final ProductPagingService productPagingService;
+    private final SalesLongPollRegistry salesLongPollRegistry;
+    private final SalesBroadcaster salesBroadcaster;
+    private final ForkJoinPoolRegistry forkJoinPools;
+    private final BlockingTaskExecutor blockingTasks;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
 
     @Autowired
-    public ProductController(final ProductService productService) {
+    public ProductController(final ProductService productService, final ProductExportService productExportService,
+                             final ProductPagingService productPagingService,
+                             final SalesLongPollRegistry salesLongPollRegistry,
+                             final SalesBroadcaster salesBroadcaster,
+                             final ForkJoinPoolRegistry forkJoinPools,
+                             final BlockingTaskExecutor blockingTasks,
+                             final AdaptiveConcurrencyLimiter concurrencyLimiter) {
         this.productService = productService;
+        this.productExportService = productExportService;
+        this.productPagingService = productPagingService;
+        this.salesLongPollRegistry = salesLongPollRegistry;
+        this.salesBroadcaster = salesBroadcaster;
+        this.forkJoinPools = forkJoinPools;
+        this.blockingTasks = blockingTasks;
+        this.concurrencyLimiter = concurrencyLimiter;
     }
 
     @GetMapping("/long/{productType}")
@@ -37,49 +80,134 @@ public class ProductController {
         return productService.getAllDatabaseProducts();
     }
 
+    @GetMapping("/page")
+    public ProductPage productsPage(@RequestParam(required = false) final Integer size,
+                                    @RequestParam(required = false) final String token,
+                                    @RequestParam(required = false) final Double minPrice,
+                                    @RequestParam(required = false) final Double maxPrice) {
+        return productPagingService.getPage(size, token, minPrice, maxPrice);
+    }
+
+    @PostMapping("/bulk-insert")
+    public BulkInsertReport bulkInsert(@RequestParam(defaultValue = "100000") final int count) {
+        return productService.insertGeneratedProducts(count);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "NDJSON") final ExportFormat format) {
+        return ResponseEntity.ok()
+                             .contentType(MediaType.parseMediaType(format.getContentType()))
+                             .body(outputStream -> productExportService.exportProducts(outputStream, format));
+    }
+
+    @GetMapping("/db/{id}")
+    public ResponseEntity<ProductEntity> databaseProduct(@PathVariable final long id) {
+        return ResponseEntity.of(productService.getDatabaseProductById(id));
+    }
+
+    @GetMapping("/db/price-range")
+    public List<ProductEntity> databaseProductsByPriceRange(@RequestParam final double min,
+                                                            @RequestParam final double max) {
+        return productService.getDatabaseProductsByPriceRange(min, max);
+    }
+
+    @GetMapping("/db/cache-stats")
+    public Map<String, CacheStats> entityCacheStats() {
+        return productService.getEntityCacheStats();
+    }
+
     @GetMapping("/long/sync/{productType}")
     public List<Product> getSynchronizedProducts(@PathVariable final String productType) {
         return productService.getSynchronizedProducts(productType);
     }
 
+    // the adaptive limit of the /long requests, their in-flight count and the rejections
+    @GetMapping("/long/limit-stats")
+    public ConcurrencyLimitStats concurrencyLimitStats() {
+        return concurrencyLimiter.getStats();
+    }
+
+    @GetMapping("/long/sync-stats")
+    public SingleFlightStats coalescingStats() {
+        return productService.getCoalescingStats();
+    }
+
+    @GetMapping("/cache-stats")
+    public Map<String, CacheStats> cacheStats() {
+        return productService.getCacheStats();
+    }
+
+    // long-poll - answers with the first sales snapshot newer than the 'since' version (its 'updates'), or with
+    // 204 when nothing has changed until the timeout; the request thread is released right away
     @GetMapping("/deferred-result")
-    public DeferredResult<ResponseEntity<?>> deferredResultProcessing() {
-        DeferredResult<ResponseEntity<?>> deferredResult = new DeferredResult<>();
-        deferredResult.onTimeout(() -> ResponseEntity.status(HttpStatus.REQUEST_TIMEOUT)
-                                                     .body("The request has timed-out"));
-        try {
-            Thread.sleep(70000);
-            deferredResult.setResult(ResponseEntity.ok()
-                                                   .body("The total sales value is " +
-                                                           productService.getTotalSales()));
-        } catch (RuntimeException | InterruptedException ex) {
-            deferredResult.setErrorResult(ResponseEntity.badRequest()
-                                                        .body(ex.getMessage()));
-        }
+    public DeferredResult<ResponseEntity<?>> deferredResultProcessing(
+            @RequestParam(defaultValue = "-1") final long since) {
+        final DeferredResult<ResponseEntity<?>> deferredResult = new DeferredResult<>(
+                salesLongPollRegistry.getTimeout().toMillis(), () -> ResponseEntity.noContent().build());
+
+        final Runnable cancellation = salesLongPollRegistry.register(since, snapshot ->
+                deferredResult.setResult(ResponseEntity.ok(snapshot)));
+        deferredResult.onCompletion(cancellation);
 
         return deferredResult;
     }
 
+    @GetMapping("/deferred-result/pending")
+    public int pendingLongPolls() {
+        return salesLongPollRegistry.getPendingCount();
+    }
+
     @GetMapping("/cf")
     public CompletableFuture<ResponseEntity<?>> completableFeature() {
         return CompletableFuture.completedFuture(ResponseEntity.ok()
                                                                .body(productService.getTotalSales()));
     }
 
+    // the statistics of all the products generated since the start, including the ones evicted from the store
+    @GetMapping("/price-stats")
+    public PriceStats priceStats() {
+        return productService.getPriceStats();
+    }
+
+    @GetMapping("/sales")
+    public SalesSnapshot salesSnapshot() {
+        return productService.getSalesSnapshot();
+    }
+
+    @GetMapping(path = "/sales/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter salesStream() {
+        return salesBroadcaster.subscribe();
+    }
+
+    @GetMapping("/sales/stream/stats")
+    public BroadcastStats salesStreamStats() {
+        return salesBroadcaster.getStats();
+    }
+
     private void setTotalSalesSync(DeferredResult<ResponseEntity<?>> deferredResult) {
         final double totalSales = productService.getTotalSales();
         deferredResult.setResult(ResponseEntity.ok().body("The total sales value is " + totalSales));
     }
 
     private void setTotalSalesAsync(DeferredResult<ResponseEntity<?>> deferredResult) {
-        CompletableFuture.supplyAsync(productService::getTotalSales)
+        final ForkJoinPool asyncGluePool = forkJoinPools.get(ForkJoinPoolRegistry.ASYNC_GLUE);
+        CompletableFuture.supplyAsync(productService::getTotalSales, asyncGluePool)
                          .thenAcceptAsync(value -> deferredResult.setResult(ResponseEntity.ok()
-                                                                                          .body("The total sales value is " + value)));
+                                                                                          .body("The total sales value is " + value)),
+                                          asyncGluePool);
     }
 
+    // per pool: the parallelism, the active threads, the queued submissions / tasks and the steal counts
     @GetMapping("/pool-size")
-    public String getPoolSize() {
-        final ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
-        return forkJoinPool.getPoolSize() + " / " + Runtime.getRuntime().availableProcessors();
+    public List<ForkJoinPoolStats> getPoolSize() {
+        return forkJoinPools.getReport();
+    }
+
+    // the blocking tasks bulkhead saturation, queue time and rejections, and the blocking seen on the common pool;
+    // '?inspectThreads=true' also counts the blocked common pool workers, from a (stop-the-world) thread dump
+    @GetMapping("/pool-size/blocking")
+    public BlockingTaskStats getBlockingTaskStats(@RequestParam(defaultValue = "false") final boolean inspectThreads) {
+        return blockingTasks.getStats(inspectThreads);
     }
 }
\ No newline at end of file
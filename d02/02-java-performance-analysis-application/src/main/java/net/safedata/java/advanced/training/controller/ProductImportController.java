@@ -0,0 +1,43 @@
+package net.safedata.java.advanced.training.controller;
+
+import net.safedata.java.advanced.training.service.importer.ImportProgress;
+import net.safedata.java.advanced.training.service.importer.ProductCsvImporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/product/import")
+public class ProductImportController {
+
+    private final ProductCsvImporter productCsvImporter;
+
+    @Autowired
+    public ProductImportController(final ProductCsvImporter productCsvImporter) {
+        this.productCsvImporter = productCsvImporter;
+    }
+
+    @PostMapping
+    public ResponseEntity<ImportProgress> startImport(@RequestParam final String file) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                             .body(productCsvImporter.startImport(file));
+    }
+
+    @GetMapping
+    public List<ImportProgress> allImports() {
+        return productCsvImporter.getAllProgress();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportProgress> importProgress(@PathVariable final long id) {
+        return ResponseEntity.of(productCsvImporter.getProgress(id));
+    }
+}
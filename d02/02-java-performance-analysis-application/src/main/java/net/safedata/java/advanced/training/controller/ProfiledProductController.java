@@ -4,6 +4,8 @@ import net.safedata.java.advanced.training.aop.profiling.ExecutionTimeProfiling;
 import net.safedata.java.advanced.training.aop.profiling.MemoryProfiling;
 import net.safedata.java.advanced.training.service.ProductService;
 import net.safedata.java.advanced.training.model.Product;
+import net.safedata.java.advanced.training.service.concurrent.ForkJoinPoolRegistry;
+import net.safedata.java.advanced.training.service.concurrent.ForkJoinPoolStats;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -22,10 +24,12 @@ import java.util.concurrent.ForkJoinPool;
 public class ProfiledProductController {
 
     private final ProductService productService;
+    private final ForkJoinPoolRegistry forkJoinPools;
 
     @Autowired
-    public ProfiledProductController(final ProductService productService) {
+    public ProfiledProductController(final ProductService productService, final ForkJoinPoolRegistry forkJoinPools) {
         this.productService = productService;
+        this.forkJoinPools = forkJoinPools;
     }
 
     @ExecutionTimeProfiling
@@ -69,14 +73,15 @@ public class ProfiledProductController {
     }
 
     private void setTotalSalesAsync(DeferredResult<ResponseEntity<?>> deferredResult) {
-        CompletableFuture.supplyAsync(productService::getTotalSales)
+        final ForkJoinPool asyncGluePool = forkJoinPools.get(ForkJoinPoolRegistry.ASYNC_GLUE);
+        CompletableFuture.supplyAsync(productService::getTotalSales, asyncGluePool)
                          .thenAcceptAsync(value -> deferredResult.setResult(ResponseEntity.ok()
-                                                                                          .body("The total sales value is " + value)));
+                                                                                          .body("The total sales value is " + value)),
+                                          asyncGluePool);
     }
 
     @GetMapping("/pool-size")
-    public String getPoolSize() {
-        final ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
-        return forkJoinPool.getPoolSize() + " / " + Runtime.getRuntime().availableProcessors();
+    public List<ForkJoinPoolStats> getPoolSize() {
+        return forkJoinPools.getReport();
     }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package net.safedata.java.advanced.training.controller;
+
+import net.safedata.java.advanced.training.aop.jfr.ContinuousRecording;
+import net.safedata.java.advanced.training.aop.jfr.RecordingStatus;
+import net.safedata.java.advanced.training.aop.logging.AsyncLogPipeline;
+import net.safedata.java.advanced.training.aop.logging.LoggingStats;
+import net.safedata.java.advanced.training.aop.metrics.AllocationStats;
+import net.safedata.java.advanced.training.aop.metrics.MethodLatencyStats;
+import net.safedata.java.advanced.training.aop.metrics.MethodProfiles;
+import net.safedata.java.advanced.training.aop.metrics.SamplingMode;
+import net.safedata.java.advanced.training.aop.metrics.SamplingPolicy;
+import net.safedata.java.advanced.training.aop.metrics.SamplingStats;
+import net.safedata.java.advanced.training.errorhandling.ErrorMetrics;
+import net.safedata.java.advanced.training.errorhandling.ErrorReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/profiling")
+public class ProfilingController {
+
+    private final MethodProfiles methodProfiles;
+    private final ContinuousRecording continuousRecording;
+    private final AsyncLogPipeline asyncLogPipeline;
+    private final ErrorMetrics errorMetrics;
+
+    @Autowired
+    public ProfilingController(final MethodProfiles methodProfiles, final ContinuousRecording continuousRecording,
+                               final AsyncLogPipeline asyncLogPipeline, final ErrorMetrics errorMetrics) {
+        this.methodProfiles = methodProfiles;
+        this.continuousRecording = continuousRecording;
+        this.asyncLogPipeline = asyncLogPipeline;
+        this.errorMetrics = errorMetrics;
+    }
+
+    @GetMapping("/allocations")
+    public List<AllocationStats> allocations() {
+        return methodProfiles.getAllocationStats();
+    }
+
+    @GetMapping("/latency")
+    public List<MethodLatencyStats> latency() {
+        return methodProfiles.getLatencyStats();
+    }
+
+    // closes the current interval and returns its latencies
+    @PostMapping("/latency/reset")
+    public List<MethodLatencyStats> resetLatency() {
+        return methodProfiles.resetLatencyStats();
+    }
+
+    @GetMapping("/sampling")
+    public List<SamplingStats> sampling() {
+        return methodProfiles.getSamplingStats();
+    }
+
+    // e.g. PUT /profiling/sampling?method=ProfiledProductController.longRunningOperation&mode=ONE_IN_N&value=10
+    @PutMapping("/sampling")
+    public SamplingStats setSampling(@RequestParam final String method, @RequestParam final SamplingMode mode,
+                                     @RequestParam(defaultValue = "0") final int value) {
+        return methodProfiles.setSamplingPolicy(method, new SamplingPolicy(mode, value));
+    }
+
+    @GetMapping("/jfr")
+    public RecordingStatus recordingStatus() {
+        return continuousRecording.getStatus();
+    }
+
+    @PostMapping("/jfr/start")
+    public RecordingStatus startRecording() {
+        return continuousRecording.start();
+    }
+
+    @PostMapping("/jfr/stop")
+    public RecordingStatus stopRecording() {
+        return continuousRecording.stop();
+    }
+
+    // 404 if no recording was started
+    @PostMapping("/jfr/dump")
+    public ResponseEntity<RecordingStatus> dumpRecording() {
+        return ResponseEntity.of(continuousRecording.dump());
+    }
+
+    @GetMapping("/logging")
+    public LoggingStats loggingStats() {
+        return asyncLogPipeline.getStats();
+    }
+
+    @GetMapping("/errors")
+    public ErrorReport errors() {
+        return errorMetrics.getReport();
+    }
+}
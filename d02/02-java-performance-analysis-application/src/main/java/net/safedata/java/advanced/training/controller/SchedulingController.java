@@ -0,0 +1,27 @@
+package net.safedata.java.advanced.training.controller;
+
+import net.safedata.java.advanced.training.scheduling.JobStats;
+import net.safedata.java.advanced.training.scheduling.ScheduledJobs;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/scheduling")
+public class SchedulingController {
+
+    private final ScheduledJobs scheduledJobs;
+
+    @Autowired
+    public SchedulingController(final ScheduledJobs scheduledJobs) {
+        this.scheduledJobs = scheduledJobs;
+    }
+
+    @GetMapping("/jobs")
+    public List<JobStats> jobsStats() {
+        return scheduledJobs.getStats();
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 import java.io.Serializable;
@@ -13,11 +14,17 @@ import java.io.Serializable;
 @Table(name = "product")
 public class ProductEntity implements Serializable {
 
+    // the ids are handed out in blocks, using the 'pooled-lo' optimizer: a sequence value v reserves [v, v + size)
+    public static final String ID_SEQUENCE = "product_seq";
+    public static final int ID_BLOCK_SIZE = 1000;
+    public static final int NAME_LENGTH = 100;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_id")
+    @SequenceGenerator(name = "product_id", sequenceName = ID_SEQUENCE, allocationSize = ID_BLOCK_SIZE)
     private long id;
 
-    @Column(name = "name", length = 100)
+    @Column(name = "name", length = NAME_LENGTH)
     private String name;
 
     @Column(name = "price", length = 2)
@@ -1,9 +1,86 @@
 package net.safedata.java.advanced.training.domain.repository;
 
 import net.safedata.java.advanced.training.domain.model.ProductEntity;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The product reads are served from the second-level caches - by id and by query; every write goes through to the
+ * database and invalidates the affected entries. The cached entities are shared, so they should not be modified.
+ */
 @Repository
 public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
+
+    String PRODUCTS_BY_ID = "productsById";
+    String PRODUCT_QUERIES = "productQueries";
+
+    @Override
+    @Cacheable(cacheNames = PRODUCTS_BY_ID, unless = "#result == null")
+    Optional<ProductEntity> findById(Long id);
+
+    @Override
+    @Cacheable(cacheNames = PRODUCT_QUERIES, key = "'findAll'")
+    List<ProductEntity> findAll();
+
+    @Cacheable(cacheNames = PRODUCT_QUERIES, key = "{'findByPriceBetween', #p0, #p1}")
+    List<ProductEntity> findByPriceBetweenOrderById(double minPrice, double maxPrice);
+
+    @Override
+    @Caching(put = @CachePut(cacheNames = PRODUCTS_BY_ID, key = "#result.id"),
+             evict = @CacheEvict(cacheNames = PRODUCT_QUERIES, allEntries = true))
+    <S extends ProductEntity> S save(S entity);
+
+    @Override
+    @Caching(put = @CachePut(cacheNames = PRODUCTS_BY_ID, key = "#result.id"),
+             evict = @CacheEvict(cacheNames = PRODUCT_QUERIES, allEntries = true))
+    <S extends ProductEntity> S saveAndFlush(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = {PRODUCTS_BY_ID, PRODUCT_QUERIES}, allEntries = true)
+    <S extends ProductEntity> List<S> saveAll(Iterable<S> entities);
+
+    @Override
+    @CacheEvict(cacheNames = {PRODUCTS_BY_ID, PRODUCT_QUERIES}, allEntries = true)
+    <S extends ProductEntity> List<S> saveAllAndFlush(Iterable<S> entities);
+
+    @Override
+    @Caching(evict = {@CacheEvict(cacheNames = PRODUCTS_BY_ID, key = "#p0"),
+                      @CacheEvict(cacheNames = PRODUCT_QUERIES, allEntries = true)})
+    void deleteById(Long id);
+
+    @Override
+    @Caching(evict = {@CacheEvict(cacheNames = PRODUCTS_BY_ID, key = "#p0.id"),
+                      @CacheEvict(cacheNames = PRODUCT_QUERIES, allEntries = true)})
+    void delete(ProductEntity entity);
+
+    @Override
+    @CacheEvict(cacheNames = {PRODUCTS_BY_ID, PRODUCT_QUERIES}, allEntries = true)
+    void deleteAllById(Iterable<? extends Long> ids);
+
+    @Override
+    @CacheEvict(cacheNames = {PRODUCTS_BY_ID, PRODUCT_QUERIES}, allEntries = true)
+    void deleteAll(Iterable<? extends ProductEntity> entities);
+
+    @Override
+    @CacheEvict(cacheNames = {PRODUCTS_BY_ID, PRODUCT_QUERIES}, allEntries = true)
+    void deleteAll();
+
+    @Override
+    @CacheEvict(cacheNames = {PRODUCTS_BY_ID, PRODUCT_QUERIES}, allEntries = true)
+    void deleteAllInBatch(Iterable<ProductEntity> entities);
+
+    @Override
+    @CacheEvict(cacheNames = {PRODUCTS_BY_ID, PRODUCT_QUERIES}, allEntries = true)
+    void deleteAllByIdInBatch(Iterable<Long> ids);
+
+    @Override
+    @CacheEvict(cacheNames = {PRODUCTS_BY_ID, PRODUCT_QUERIES}, allEntries = true)
+    void deleteAllInBatch();
 }
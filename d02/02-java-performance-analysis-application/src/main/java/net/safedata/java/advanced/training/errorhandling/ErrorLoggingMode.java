@@ -0,0 +1,8 @@
+package net.safedata.java.advanced.training.errorhandling;
+
+public enum ErrorLoggingMode {
+    // the stack trace of every handled exception is logged
+    FULL,
+    // the stack traces are logged for a rate limited sample, all the exceptions are counted
+    SAMPLED
+}
@@ -0,0 +1,104 @@
+package net.safedata.java.advanced.training.errorhandling;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Clock;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the handled exceptions by their type and endpoint - the endpoints are identified by their mapping patterns
+ * (not by the request URIs), so the number of counters stays bounded. The totals and the per-second counts of the
+ * last minute are kept in striped counters, so the concurrent failures of an endpoint do not contend on one slot.
+ */
+@Component
+public class ErrorMetrics {
+
+    private static final long SECOND = TimeUnit.SECONDS.toMillis(1);
+    private static final int WINDOW_SECONDS = 60;
+    private static final String UNMAPPED_ENDPOINT = "unmapped";
+
+    private final Map<ErrorKey, ErrorCounter> counters = new ConcurrentHashMap<>();
+
+    private final StackTraceSampler stackTraceSampler;
+    private final Clock clock;
+
+    @Autowired
+    public ErrorMetrics(final StackTraceSampler stackTraceSampler) {
+        this(stackTraceSampler, Clock.systemUTC());
+    }
+
+    ErrorMetrics(final StackTraceSampler stackTraceSampler, final Clock clock) {
+        this.stackTraceSampler = stackTraceSampler;
+        this.clock = clock;
+    }
+
+    // the endpoint of the request
+    public String record(final Throwable exception, final HttpServletRequest request) {
+        final Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        final String endpoint = request.getMethod() + " " + (pattern != null ? pattern : UNMAPPED_ENDPOINT);
+
+        counters.computeIfAbsent(new ErrorKey(exception.getClass().getName(), endpoint), key -> new ErrorCounter())
+                .increment(clock.millis());
+        return endpoint;
+    }
+
+    public ErrorReport getReport() {
+        final long now = clock.millis();
+        final List<ErrorStats> errors = counters.entrySet()
+                                                .stream()
+                                                .map(entry -> entry.getValue().getStats(entry.getKey(), now))
+                                                .sorted(Comparator.comparingLong(ErrorStats::count).reversed())
+                                                .toList();
+
+        return new ErrorReport(stackTraceSampler.getLogged(), stackTraceSampler.getSuppressed(), errors);
+    }
+
+    private record ErrorKey(String exception, String endpoint) {}
+
+    private static final class ErrorCounter {
+        private final LongAdder total = new LongAdder();
+        private final AtomicReferenceArray<SecondCount> lastMinute = new AtomicReferenceArray<>(WINDOW_SECONDS);
+
+        private void increment(final long now) {
+            total.increment();
+
+            final long second = now / SECOND;
+            final int index = (int) (second % WINDOW_SECONDS);
+            SecondCount slot = lastMinute.get(index);
+            // the slot is replaced only on the first failure of a second, the others just add to its counter
+            while (slot == null || slot.second() < second) {
+                final SecondCount next = new SecondCount(second, new LongAdder());
+                slot = lastMinute.compareAndSet(index, slot, next) ? next : lastMinute.get(index);
+            }
+            if (slot.second() == second) {
+                slot.count().increment();
+            }
+        }
+
+        private ErrorStats getStats(final ErrorKey key, final long now) {
+            final long oldestSecond = now / SECOND - WINDOW_SECONDS + 1;
+
+            long lastMinuteCount = 0;
+            for (int index = 0; index < WINDOW_SECONDS; index++) {
+                final SecondCount slot = lastMinute.get(index);
+                if (slot != null && slot.second() >= oldestSecond) {
+                    lastMinuteCount += slot.count().sum();
+                }
+            }
+            return new ErrorStats(key.exception(), key.endpoint(), total.sum(), lastMinuteCount,
+                    (double) lastMinuteCount / WINDOW_SECONDS);
+        }
+    }
+
+    // a late writer finding a newer second in its slot drops its count from the window, keeping it in the total
+    private record SecondCount(long second, LongAdder count) {}
+}
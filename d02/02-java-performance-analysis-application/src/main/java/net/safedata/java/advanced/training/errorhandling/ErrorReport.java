@@ -0,0 +1,6 @@
+package net.safedata.java.advanced.training.errorhandling;
+
+import java.util.List;
+
+public record ErrorReport(long loggedStackTraces, long suppressedStackTraces, List<ErrorStats> errors) {
+}
@@ -0,0 +1,7 @@
+package net.safedata.java.advanced.training.errorhandling;
+
+/**
+ * The endpoint is the HTTP method and the matched mapping pattern; the rate is per second, over the last minute
+ */
+public record ErrorStats(String exception, String endpoint, long count, long lastMinute, double ratePerSecond) {
+}
@@ -1,5 +1,9 @@
 package net.safedata.java.advanced.training.errorhandling;
 
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -7,17 +11,42 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @RestControllerAdvice
 public class ExceptionHandlers {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExceptionHandlers.class);
+
+    private final ErrorMetrics errorMetrics;
+    private final StackTraceSampler stackTraceSampler;
+
+    @Autowired
+    public ExceptionHandlers(final ErrorMetrics errorMetrics, final StackTraceSampler stackTraceSampler) {
+        this.errorMetrics = errorMetrics;
+        this.stackTraceSampler = stackTraceSampler;
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
-    public ResponseEntity<String> handleRuntimeException(IllegalArgumentException ex) {
-        ex.printStackTrace();
+    public ResponseEntity<String> handleRuntimeException(IllegalArgumentException ex, HttpServletRequest request) {
+        handle(ex, request);
         return ResponseEntity.badRequest()
                              .body("Something happened");
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<String> handleUglyExceptions(Exception ex) {
-        ex.printStackTrace();
+    public ResponseEntity<String> handleUglyExceptions(Exception ex, HttpServletRequest request) {
+        handle(ex, request);
         return ResponseEntity.internalServerError()
                              .body("Oops");
     }
+
+    // every exception is counted, only the sampled ones are logged; the stackless ones only by their message
+    private void handle(final Exception ex, final HttpServletRequest request) {
+        final String endpoint = errorMetrics.record(ex, request);
+        if (!stackTraceSampler.shouldLog()) {
+            return;
+        }
+
+        if (ex.getStackTrace().length == 0) {
+            LOGGER.warn("{} on '{}': {}", ex.getClass().getSimpleName(), endpoint, ex.getMessage());
+        } else {
+            LOGGER.error("{} on '{}'", ex.getClass().getSimpleName(), endpoint, ex);
+        }
+    }
 }
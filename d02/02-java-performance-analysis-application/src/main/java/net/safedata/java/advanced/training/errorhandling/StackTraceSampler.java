@@ -0,0 +1,53 @@
+package net.safedata.java.advanced.training.errorhandling;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which stack traces are logged - in the sampled mode, the permits are spaced by '1 / traces per second', so
+ * a burst of failing requests cannot turn the stack trace formatting and the log writes into a bottleneck
+ */
+@Component
+public class StackTraceSampler {
+
+    private final ErrorLoggingMode mode;
+    private final long intervalNanos;
+
+    private final AtomicLong nextPermitTime = new AtomicLong(System.nanoTime());
+    private final LongAdder logged = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+
+    public StackTraceSampler(@Value("${error-handling.mode:SAMPLED}") final ErrorLoggingMode mode,
+                             @Value("${error-handling.stack-traces-per-second:1}") final double tracesPerSecond) {
+        if (tracesPerSecond <= 0) {
+            throw new IllegalArgumentException("The stack traces rate must be positive");
+        }
+
+        this.mode = mode;
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / tracesPerSecond);
+    }
+
+    public boolean shouldLog() {
+        final boolean log = mode == ErrorLoggingMode.FULL || acquirePermit();
+        (log ? logged : suppressed).increment();
+        return log;
+    }
+
+    public long getLogged() {
+        return logged.sum();
+    }
+
+    public long getSuppressed() {
+        return suppressed.sum();
+    }
+
+    private boolean acquirePermit() {
+        final long now = System.nanoTime();
+        final long next = nextPermitTime.get();
+        return now - next >= 0 && nextPermitTime.compareAndSet(next, now + intervalNanos);
+    }
+}
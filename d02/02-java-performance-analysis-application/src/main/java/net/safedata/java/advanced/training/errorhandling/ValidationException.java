@@ -0,0 +1,19 @@
+package net.safedata.java.advanced.training.errorhandling;
+
+/**
+ * Stackless validation failure, for the hot paths - filling in the stack trace is the most expensive part of creating
+ * an exception, while the message is all a (400) validation failure needs
+ */
+public class ValidationException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ValidationException(final String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
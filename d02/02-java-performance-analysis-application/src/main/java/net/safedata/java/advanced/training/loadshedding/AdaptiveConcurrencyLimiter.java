@@ -0,0 +1,131 @@
+package net.safedata.java.advanced.training.loadshedding;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gradient style concurrency limit - per window, the average latency is compared with a long-term baseline (an
+ * exponential average over about the last 20 windows): when it grows past the tolerated ratio the limit is shrunk
+ * proportionally, otherwise it grows by a square root sized queue allowance. The baseline is not the best window, as
+ * a window of cache hits would pin it near zero and every window with misses would then shrink the limit. The
+ * requests above the limit are rejected right away, instead of waiting for a thread.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double BASELINE_WEIGHT = 0.05;
+    // the windows up to 1.5 times slower than the baseline are taken as noise, not as a queueing latency
+    private static final double LATENCY_TOLERANCE = 1.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final long windowNanos;
+    private final int minWindowSamples;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile double estimatedLimit;
+
+    // guarded by 'this'
+    private long windowStart = System.nanoTime();
+    private int windowSamples;
+    private long windowLatencySum;
+    private int windowMaxInFlight;
+    private double shortLatency;
+    private double baselineLatency;
+    private double gradient = 1.0;
+
+    public AdaptiveConcurrencyLimiter(@Value("${execution.concurrency-limit.initial-limit:8}") final int initialLimit,
+                                      @Value("${execution.concurrency-limit.min-limit:1}") final int minLimit,
+                                      @Value("${execution.concurrency-limit.max-limit:200}") final int maxLimit,
+                                      @Value("${execution.concurrency-limit.smoothing:0.2}") final double smoothing,
+                                      @Value("${execution.concurrency-limit.window:1s}") final Duration window,
+                                      @Value("${execution.concurrency-limit.min-window-samples:5}") final int minWindowSamples) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("The limits must be 1 <= min-limit <= max-limit");
+        }
+        if (smoothing <= 0 || smoothing > 1) {
+            throw new IllegalArgumentException("The smoothing must be in (0, 1]");
+        }
+
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.windowNanos = window.toNanos();
+        this.minWindowSamples = minWindowSamples;
+        this.estimatedLimit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            final int current = inFlight.get();
+            if (current >= getLimit()) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return true;
+            }
+        }
+    }
+
+    // called once per acquired permit, with the latency of the request
+    public void release(final long latencyNanos) {
+        final int releasedInFlight = inFlight.getAndDecrement();
+        onSample(latencyNanos, releasedInFlight);
+    }
+
+    public int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    // the clients are asked to come back after about one request duration
+    public synchronized long getRetryAfterSeconds() {
+        return Math.max(1, (long) Math.ceil(shortLatency / TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    public synchronized ConcurrencyLimitStats getStats() {
+        return new ConcurrencyLimitStats(getLimit(), inFlight.get(), accepted.sum(), rejected.sum(),
+                (long) shortLatency, (long) baselineLatency, gradient);
+    }
+
+    private synchronized void onSample(final long latencyNanos, final int sampleInFlight) {
+        windowSamples++;
+        windowLatencySum += latencyNanos;
+        windowMaxInFlight = Math.max(windowMaxInFlight, sampleInFlight);
+
+        final long now = System.nanoTime();
+        if (now - windowStart < windowNanos || windowSamples < minWindowSamples) {
+            return;
+        }
+
+        shortLatency = (double) windowLatencySum / windowSamples;
+        // a sustained change of the latency is slowly accepted as the new baseline
+        baselineLatency = baselineLatency == 0
+                ? shortLatency
+                : baselineLatency + (shortLatency - baselineLatency) * BASELINE_WEIGHT;
+        gradient = Math.clamp(LATENCY_TOLERANCE * baselineLatency / shortLatency, MIN_GRADIENT, 1.0);
+
+        // an under-used limit says nothing about a higher one, so it is only grown when the requests were using it
+        final double limit = estimatedLimit;
+        if (gradient < 1.0 || windowMaxInFlight >= limit / 2) {
+            final double newLimit = limit * gradient + Math.sqrt(limit);
+            estimatedLimit = Math.clamp(limit * (1 - smoothing) + newLimit * smoothing, minLimit, maxLimit);
+        }
+
+        windowStart = now;
+        windowSamples = 0;
+        windowLatencySum = 0;
+        windowMaxInFlight = 0;
+    }
+}
@@ -0,0 +1,8 @@
+package net.safedata.java.advanced.training.loadshedding;
+
+/**
+ * The latencies are in nanoseconds - the last window average and the baseline it is compared with
+ */
+public record ConcurrencyLimitStats(int limit, int inFlight, long acceptedRequests, long rejectedRequests,
+                                    long windowLatency, long baselineLatency, double gradient) {
+}
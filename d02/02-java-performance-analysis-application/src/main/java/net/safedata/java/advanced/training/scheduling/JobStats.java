@@ -0,0 +1,6 @@
+package net.safedata.java.advanced.training.scheduling;
+
+public record JobStats(String job, SchedulingMode mode, long periodMillis, long runs, long overruns,
+                       long skippedRuns, long lastDurationMillis, long averageDurationMillis, long maxDurationMillis,
+                       long lastLagMillis, long maxLagMillis) {
+}
@@ -0,0 +1,102 @@
+package net.safedata.java.advanced.training.scheduling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Fixed-rate trigger which records the duration and the start lag of every run. In the adaptive mode, a run which
+ * overruns its period does not cause a burst of catch-up runs - the next run is moved to the first slot of the rate
+ * which leaves at least the minimum idle time after the overrun, and the slots in between are counted as skipped.
+ */
+public class OverrunAwareTrigger implements Trigger {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OverrunAwareTrigger.class);
+
+    private final String job;
+    private final SchedulingMode mode;
+    private final long periodMillis;
+    private final long minIdleMillis;
+
+    private long runs;
+    private long overruns;
+    private long skippedRuns;
+    private long lastDuration;
+    private long totalDuration;
+    private long maxDuration;
+    private long lastLag;
+    private long maxLag;
+
+    public OverrunAwareTrigger(final String job, final SchedulingMode mode, final Duration period,
+                               final double minIdleRatio) {
+        // a zero period would never move the next run past an overrun
+        if (period.toMillis() <= 0) {
+            throw new IllegalArgumentException("The period of the '" + job + "' job must be at least 1 ms");
+        }
+
+        this.job = job;
+        this.mode = mode;
+        this.periodMillis = period.toMillis();
+        this.minIdleMillis = (long) (periodMillis * minIdleRatio);
+    }
+
+    @Override
+    public Instant nextExecution(final TriggerContext triggerContext) {
+        final Instant lastScheduled = triggerContext.lastScheduledExecution();
+        final Instant lastActual = triggerContext.lastActualExecution();
+        final Instant lastCompletion = triggerContext.lastCompletion();
+        if (lastScheduled == null || lastActual == null || lastCompletion == null) {
+            return triggerContext.getClock().instant();
+        }
+
+        final long scheduled = lastScheduled.toEpochMilli();
+        final long completion = lastCompletion.toEpochMilli();
+        record(lastActual.toEpochMilli() - scheduled, completion - lastActual.toEpochMilli());
+
+        long next = scheduled + periodMillis;
+        if (completion <= next) {
+            return Instant.ofEpochMilli(next);
+        }
+
+        recordOverrun();
+        if (mode == SchedulingMode.FIXED_RATE) {
+            return Instant.ofEpochMilli(next);
+        }
+
+        long skipped = 0;
+        while (next < completion + minIdleMillis) {
+            next += periodMillis;
+            skipped++;
+        }
+        recordSkipped(skipped);
+        LOGGER.warn("The '{}' job has overrun its {} ms period, skipping {} run(s)", job, periodMillis, skipped);
+
+        return Instant.ofEpochMilli(next);
+    }
+
+    public synchronized JobStats getStats() {
+        return new JobStats(job, mode, periodMillis, runs, overruns, skippedRuns, lastDuration,
+                runs == 0 ? 0 : totalDuration / runs, maxDuration, lastLag, maxLag);
+    }
+
+    private synchronized void record(final long lag, final long duration) {
+        runs++;
+        lastLag = lag;
+        maxLag = Math.max(maxLag, lag);
+        lastDuration = duration;
+        totalDuration += duration;
+        maxDuration = Math.max(maxDuration, duration);
+    }
+
+    private synchronized void recordOverrun() {
+        overruns++;
+    }
+
+    private synchronized void recordSkipped(final long skipped) {
+        skippedRuns += skipped;
+    }
+}
@@ -0,0 +1,45 @@
+package net.safedata.java.advanced.training.scheduling;
+
+import net.safedata.java.advanced.training.service.ProductService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Registers the products processing simulations on the task scheduler, each with its own overrun aware trigger
+ */
+@Component
+public class ScheduledJobs implements SchedulingConfigurer {
+
+    private final ProductService productService;
+
+    private final OverrunAwareTrigger productsProcessingTrigger;
+    private final OverrunAwareTrigger stopwatchProductsProcessingTrigger;
+
+    public ScheduledJobs(final ProductService productService,
+                         @Value("${scheduling.mode:ADAPTIVE}") final SchedulingMode mode,
+                         @Value("${scheduling.min-idle-ratio:0.2}") final double minIdleRatio,
+                         @Value("${scheduling.products-processing.period:10s}") final Duration productsProcessingPeriod,
+                         @Value("${scheduling.stopwatch-products-processing.period:5s}") final Duration stopwatchPeriod) {
+        this.productService = productService;
+        this.productsProcessingTrigger = new OverrunAwareTrigger("simulateProductsProcessing", mode,
+                productsProcessingPeriod, minIdleRatio);
+        this.stopwatchProductsProcessingTrigger = new OverrunAwareTrigger("simulateProductsProcessingUsingAStopwatch",
+                mode, stopwatchPeriod, minIdleRatio);
+    }
+
+    @Override
+    public void configureTasks(final ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addTriggerTask(productService::simulateProductsProcessing, productsProcessingTrigger);
+        taskRegistrar.addTriggerTask(productService::simulateProductsProcessingUsingAStopwatch,
+                stopwatchProductsProcessingTrigger);
+    }
+
+    public List<JobStats> getStats() {
+        return List.of(productsProcessingTrigger.getStats(), stopwatchProductsProcessingTrigger.getStats());
+    }
+}
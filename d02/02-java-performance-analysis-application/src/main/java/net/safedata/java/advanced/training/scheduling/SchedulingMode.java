@@ -0,0 +1,8 @@
+package net.safedata.java.advanced.training.scheduling;
+
+public enum SchedulingMode {
+    // the runs which are due while a run overruns its period are executed back to back, right after it
+    FIXED_RATE,
+    // the runs which are due while a run overruns its period are coalesced into the next slot of the rate
+    ADAPTIVE
+}
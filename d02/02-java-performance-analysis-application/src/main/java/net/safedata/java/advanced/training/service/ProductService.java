@@ -5,14 +5,30 @@ import net.safedata.java.advanced.training.domain.repository.ProductRepository;
 import net.safedata.java.advanced.training.model.Product;
 import net.safedata.java.advanced.training.order.OrderStatus;
 import net.safedata.java.advanced.training.order.factory.AbstractOrderProcessingResult;
+import net.safedata.java.advanced.training.service.aggregation.LifetimePriceAggregate;
+import net.safedata.java.advanced.training.service.aggregation.PriceStats;
+import net.safedata.java.advanced.training.service.bulk.BulkInsertReport;
+import net.safedata.java.advanced.training.service.bulk.BulkInsertSession;
+import net.safedata.java.advanced.training.service.bulk.ProductBulkInserter;
+import net.safedata.java.advanced.training.service.cache.CacheStats;
+import net.safedata.java.advanced.training.service.cache.ProductListingKey;
+import net.safedata.java.advanced.training.service.cache.TinyLfuCache;
+import net.safedata.java.advanced.training.service.cache.TinyLfuSpringCache;
+import net.safedata.java.advanced.training.service.concurrent.BlockingTaskExecutor;
+import net.safedata.java.advanced.training.service.concurrent.ForkJoinPoolRegistry;
+import net.safedata.java.advanced.training.service.concurrent.SingleFlight;
+import net.safedata.java.advanced.training.service.concurrent.SingleFlightStats;
+import net.safedata.java.advanced.training.service.concurrent.VirtualThreadFanOut;
+import net.safedata.java.advanced.training.service.sales.SalesLedger;
+import net.safedata.java.advanced.training.service.sales.SalesSnapshot;
+import net.safedata.java.advanced.training.service.store.ProductStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.ApplicationContext;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StopWatch;
 
 import javax.sql.DataSource;
@@ -20,13 +36,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.text.DecimalFormat;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 @Service
 public class ProductService {
@@ -41,27 +53,49 @@ public class ProductService {
 
     private final DecimalFormat decimalFormat = new DecimalFormat("#,###.#");
 
-    // kept in memory to show the case of a continuously growing memory
-    private final List<Product> products;
-    private double totalSales;
+    // bounded by the configured retention, see the 'product.store' properties
+    private final ProductStore products;
+    private final SalesLedger salesLedger;
+    private final LifetimePriceAggregate priceAggregate;
+    private final VirtualThreadFanOut virtualThreadFanOut;
+    private final ForkJoinPoolRegistry forkJoinPools;
+    private final BlockingTaskExecutor blockingTasks;
+
+    private final SingleFlight<String, List<Product>> productsCoalescer = new SingleFlight<>();
+
+    private final TinyLfuCache<ProductListingKey, List<Product>> productListingsCache;
+    private final TinyLfuCache<Integer, Product> productsByIdCache;
 
     private final JdbcTemplate jdbcTemplate;
     private final ProductRepository productRepository;
+    private final ProductBulkInserter productBulkInserter;
+    private final CacheManager cacheManager;
 
     private final Map<OrderStatus, AbstractOrderProcessingResult> orderStatusToProcessorMap;
 
     @Autowired
-    public ProductService(ApplicationContext applicationContext, DataSource dataSource, ProductRepository productRepository) {
+    public ProductService(ApplicationContext applicationContext, DataSource dataSource, ProductRepository productRepository,
+                          ProductStore productStore, SalesLedger salesLedger, VirtualThreadFanOut virtualThreadFanOut,
+                          TinyLfuCache<ProductListingKey, List<Product>> productListingsCache,
+                          TinyLfuCache<Integer, Product> productsByIdCache, ProductBulkInserter productBulkInserter,
+                          CacheManager cacheManager, LifetimePriceAggregate priceAggregate,
+                          ForkJoinPoolRegistry forkJoinPools, BlockingTaskExecutor blockingTasks) {
         this.jdbcTemplate = new JdbcTemplate(dataSource);
         this.productRepository = productRepository;
-
-        this.products = new ArrayList<>();
-        this.totalSales = 0;
+        this.productBulkInserter = productBulkInserter;
+        this.cacheManager = cacheManager;
+
+        this.products = productStore;
+        this.salesLedger = salesLedger;
+        this.priceAggregate = priceAggregate;
+        this.virtualThreadFanOut = virtualThreadFanOut;
+        this.forkJoinPools = forkJoinPools;
+        this.blockingTasks = blockingTasks;
+        this.productListingsCache = productListingsCache;
+        this.productsByIdCache = productsByIdCache;
 
         final Map<String, AbstractOrderProcessingResult> beansOfType = applicationContext.getBeansOfType(AbstractOrderProcessingResult.class);
         orderStatusToProcessorMap = getOrderProcessingMap(beansOfType);
-
-        System.setProperty("java.util.concurrent.ForkJoinPool.common.parallelism", "4");
     }
 
     private Map<OrderStatus, AbstractOrderProcessingResult> getOrderProcessingMap(Map<String, AbstractOrderProcessingResult> beansOfType) {
@@ -71,16 +105,27 @@ public class ProductService {
     }
 
     //@EventListener(ApplicationReadyEvent.class)
-    @Transactional
     public void insertSomeProducts() {
-        productRepository.saveAll(buildProductsToBeInserted());
+        productBulkInserter.insert(buildProductsToBeInserted());
+    }
+
+    // the rows are generated while inserting, they are never all in memory
+    public BulkInsertReport insertGeneratedProducts(final int count) {
+        try (BulkInsertSession session = productBulkInserter.openSession()) {
+            for (int index = 0; index < count; index++) {
+                session.add("The product " + index, 1000 * RANDOM.nextInt(50000));
+            }
+            return session.finish();
+        }
     }
 
-    private static List<ProductEntity> buildProductsToBeInserted() {
-        return IntStream.rangeClosed(0, 100)
-                        .parallel() // low-hanging fruit --> always parallel
-                        .mapToObj(ProductService::buildProductEntity)
-                        .collect(Collectors.toList());
+    // split on the CPU aggregation pool, instead of the common one
+    private List<ProductEntity> buildProductsToBeInserted() {
+        return forkJoinPools.invoke(ForkJoinPoolRegistry.CPU_AGGREGATION,
+                () -> IntStream.rangeClosed(0, 100)
+                               .parallel() // low-hanging fruit --> always parallel
+                               .mapToObj(ProductService::buildProductEntity)
+                               .collect(Collectors.toList()));
     }
 
     private static ProductEntity buildProductEntity(int index) {
@@ -92,10 +137,7 @@ public class ProductService {
 
     }
 
-    @Scheduled(
-            fixedRate = 10,
-            timeUnit = TimeUnit.SECONDS
-    )
+    // scheduled by ScheduledJobs, every 'scheduling.products-processing.period'
     public void simulateProductsProcessing() {
         System.out.println();
 
@@ -110,10 +152,7 @@ public class ProductService {
         LOGGER.info("JVM memory in use after: {} MB", memoryAfter);
     }
 
-    @Scheduled(
-            fixedRate = 5,
-            timeUnit = TimeUnit.SECONDS
-    )
+    // scheduled by ScheduledJobs, every 'scheduling.stopwatch-products-processing.period'
     public void simulateProductsProcessingUsingAStopwatch() {
         System.out.println();
 
@@ -135,7 +174,11 @@ public class ProductService {
 
     private void simulateLongRunningTask(StopWatch stopWatch) {
         stopWatch.start("A long expensive task");
-        CompletableFuture.runAsync(() -> sleepALittle(5000)); // executed on the ForkJoin pool
+        blockingTasks.run(() -> sleepALittle(5000)) // executed on the blocking tasks bulkhead, not on the ForkJoin pool
+                     .exceptionally(e -> {
+                         LOGGER.warn("The long expensive task was not run: {}", e.getMessage());
+                         return null;
+                     });
         stopWatch.stop();
     }
 
@@ -155,21 +198,24 @@ public class ProductService {
         final int productsNumber = Math.abs(RANDOM.nextInt(50000) + 1); //000
         generateProducts(productsNumber);
 
-        final double totalPrice = getProductsPriceSum(products);
-        LOGGER.info("The total price of {} products is {}", products.size(), decimalFormat.format(totalPrice));
+        // maintained while generating, instead of re-summing all the products on every cycle
+        final PriceStats priceStats = priceAggregate.getStats();
+        final double totalPrice = priceStats.sum();
+        LOGGER.info("The total price of the {} products generated so far is {}", priceStats.count(),
+                decimalFormat.format(totalPrice));
 
-        totalSales += totalPrice;
-        LOGGER.info("The total sales is currently {}", decimalFormat.format(totalSales));
+        salesLedger.record(totalPrice);
+        LOGGER.info("The total sales is currently {}", decimalFormat.format(salesLedger.getTotal()));
     }
 
     private void generateProducts(int productsNumber) {
         LOGGER.info("Generating {} products...", productsNumber);
         IntStream.rangeClosed(0, productsNumber)
-                 .forEach(index -> products.add(buildProduct(index)));
-
-        @SuppressWarnings("unused")
-        final Stream<Product> dynamicallyParallelStream =
-                StreamSupport.stream(products.spliterator(), products.size() > 100);
+                 .mapToObj(this::buildProduct)
+                 .forEach(product -> {
+                     products.add(product);
+                     priceAggregate.add(product.getPrice());
+                 });
     }
 
     //@Scheduled(fixedRate = 5000)
@@ -184,7 +230,7 @@ public class ProductService {
         LOGGER.info("JVM memory in use after generating a lot of data: {} MB", memoryAfter);
     }
 
-    private static double getProductsPriceSum(Collection<Product> products) {
+    private static double getProductsPriceSum(ProductStore products) {
         if (products.isEmpty()) return 0;
 
         // define and adhere to a project wide convention, more than to the static code analysis tools
@@ -192,15 +238,7 @@ public class ProductService {
             return 0;
         }
 
-        //TODO replace with StreamSupport.parallel
-        return getProductsPrice(products);
-    }
-
-    private static double getProductsPrice(Collection<Product> products) {
-        return products.stream()
-                       .filter(Objects::nonNull)
-                       .mapToDouble(Product::getPrice)
-                       .sum();
+        return products.sumPrices();
     }
 
     private long getFreeMemoryInMB() {
@@ -208,22 +246,50 @@ public class ProductService {
     }
 
     public double getTotalSales() {
-        return totalSales;
+        return salesLedger.getTotal();
+    }
+
+    public PriceStats getPriceStats() {
+        return priceAggregate.getStats();
+    }
+
+    public SalesSnapshot getSalesSnapshot() {
+        return salesLedger.getSnapshot();
     }
 
+    // a failed or late fan-out throws, so a partial listing is never cached
     public List<Product> getALotOfProducts(final String productType, final String retrievingType) {
+        return productListingsCache.get(new ProductListingKey(productType, retrievingType),
+                key -> buildProductsList(RANDOM.nextInt(70)));
+    }
+
+    // the work of a listing, without its cache entry - for the benchmarks, whose one-off product types are never read
+    public List<Product> buildALotOfProducts() {
         return buildProductsList(RANDOM.nextInt(70));
     }
 
     private List<Product> buildProductsList(int howMany) {
+        if (virtualThreadFanOut.isEnabled()) {
+            // bounded by the slowest product, not by the sum of all of them
+            return virtualThreadFanOut.fanOut(howMany, index -> {
+                sleepALittle(index);
+                return buildProduct(index);
+            });
+        }
+
         return IntStream.range(0, howMany)
                         .peek(this::sleepALittle)
                         .mapToObj(this::buildProduct)
                         .toList();
     }
 
-    public synchronized List<Product> getSynchronizedProducts(final String productType) {
-        return getALotOfProducts(productType, "synchronized");
+    // the concurrent callers for the same product type share a single computation
+    public List<Product> getSynchronizedProducts(final String productType) {
+        return productsCoalescer.execute(productType, () -> getALotOfProducts(productType, "synchronized"));
+    }
+
+    public SingleFlightStats getCoalescingStats() {
+        return productsCoalescer.getStats();
     }
 
     private Product buildProduct(final int index) {
@@ -235,9 +301,12 @@ public class ProductService {
     private void sleepALittle(final int bound) {
         //if (true) return; //TODO uncomment to add some processing time
         try {
-            Thread.sleep(RANDOM.nextInt(Math.abs(bound) + 10));
+            // the fork/join pools compensate for the sleeping worker
+            blockingTasks.managedBlock(() -> Thread.sleep(RANDOM.nextInt(Math.abs(bound) + 10)));
         } catch (InterruptedException e) {
-            LOGGER.error(e.getMessage(), e);
+            // expected - a failed or late fan-out cancels its remaining tasks
+            Thread.currentThread().interrupt();
+            LOGGER.debug("Interrupted while sleeping, the task was cancelled");
         }
     }
 
@@ -258,12 +327,12 @@ public class ProductService {
     }
 
     private void displayProducts() {
-        for (Product product : products) {
+        products.forEach(product -> {
             System.out.println(product);
             if (product.getName().length() > 5) {
                 //..
             }
-        }
+        });
     }
 
     public List<ProductEntity> getAllDatabaseProducts() {
@@ -271,12 +340,38 @@ public class ProductService {
         //return productRepository.findAll();
     }
 
+    public Optional<ProductEntity> getDatabaseProductById(long id) {
+        return productRepository.findById(id);
+    }
+
+    public List<ProductEntity> getDatabaseProductsByPriceRange(double minPrice, double maxPrice) {
+        return productRepository.findByPriceBetweenOrderById(minPrice, maxPrice);
+    }
+
+    public Map<String, CacheStats> getEntityCacheStats() {
+        final Map<String, CacheStats> cacheStats = new LinkedHashMap<>();
+        cacheManager.getCacheNames()
+                    .forEach(name -> {
+                        if (cacheManager.getCache(name) instanceof TinyLfuSpringCache cache) {
+                            cacheStats.put(name, cache.getNativeCache().getStats());
+                        }
+                    });
+        return cacheStats;
+    }
+
     private static ProductEntity buildProductEntityFromResultSet(ResultSet rs) throws SQLException {
         return new ProductEntity(rs.getInt("id"), rs.getString("name"),
                 rs.getDouble("price"));
     }
 
     public Product getProductById(int id, Optional<String> productName) {
-        return buildProduct(id);
+        return productsByIdCache.get(id, this::buildProduct);
+    }
+
+    public Map<String, CacheStats> getCacheStats() {
+        final Map<String, CacheStats> cacheStats = new LinkedHashMap<>();
+        cacheStats.put("listings", productListingsCache.getStats());
+        cacheStats.put("products-by-id", productsByIdCache.getStats());
+        return cacheStats;
     }
 }
@@ -0,0 +1,24 @@
+package net.safedata.java.advanced.training.service.aggregation;
+
+/**
+ * An immutable running sum, using the Kahan-Babuska-Neumaier compensation to keep the rounding error out of the total
+ */
+public record CompensatedSum(double sum, double compensation) {
+
+    public static final CompensatedSum ZERO = new CompensatedSum(0, 0);
+
+    public CompensatedSum add(final double value) {
+        final double total = sum + value;
+        final double error = Math.abs(sum) >= Math.abs(value) ? (sum - total) + value
+                                                              : (value - total) + sum;
+        return new CompensatedSum(total, compensation + error);
+    }
+
+    public CompensatedSum add(final CompensatedSum other) {
+        return add(other.sum).add(other.compensation);
+    }
+
+    public double value() {
+        return sum + compensation;
+    }
+}
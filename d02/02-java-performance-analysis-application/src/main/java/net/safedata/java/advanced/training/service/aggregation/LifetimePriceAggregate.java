@@ -0,0 +1,65 @@
+package net.safedata.java.advanced.training.service.aggregation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Price statistics of all the products generated since the start, maintained as the products are appended - the
+ * count, the compensated sum, the min / max and a fixed-bucket histogram are readable at any time, without scanning
+ * the products. The evictions of a bounded product store are not subtracted (a min / max could not be), so these are
+ * lifetime statistics, not the ones of the currently stored products.
+ */
+@Component
+public class LifetimePriceAggregate {
+
+    private final double histogramMax;
+    private final double bucketWidth;
+    private final long[] buckets;
+
+    private long count;
+    private CompensatedSum sum = CompensatedSum.ZERO;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public LifetimePriceAggregate(@Value("${product.price-histogram.max:50000000}") final double histogramMax,
+                                  @Value("${product.price-histogram.buckets:50}") final int bucketsCount) {
+        // a zero / negative width would put every price in the first or the last bucket
+        if (!(histogramMax > 0)) {
+            throw new IllegalArgumentException("The price histogram max must be positive, not " + histogramMax);
+        }
+        if (bucketsCount <= 0) {
+            throw new IllegalArgumentException("The price histogram must have at least one bucket, not " +
+                    bucketsCount);
+        }
+
+        this.histogramMax = histogramMax;
+        this.bucketWidth = histogramMax / bucketsCount;
+        this.buckets = new long[bucketsCount];
+    }
+
+    public synchronized void add(final double price) {
+        count++;
+        sum = sum.add(price);
+        min = Math.min(min, price);
+        max = Math.max(max, price);
+
+        // the prices out of the [0, max) range are kept in the first / the last bucket
+        final int bucket = (int) (price / bucketWidth);
+        buckets[Math.max(0, Math.min(buckets.length - 1, bucket))]++;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized double getSum() {
+        return sum.value();
+    }
+
+    public synchronized PriceStats getStats() {
+        return new PriceStats(count, sum.value(), count == 0 ? 0 : sum.value() / count, count == 0 ? 0 : min,
+                count == 0 ? 0 : max, histogramMax, bucketWidth, Arrays.stream(buckets).boxed().toList());
+    }
+}
@@ -0,0 +1,14 @@
+package net.safedata.java.advanced.training.service.aggregation;
+
+import java.util.List;
+
+/**
+ * The histogram bucket 'i' counts the prices in [i * bucketWidth, (i + 1) * bucketWidth)
+ */
+public record PriceStats(long count, double sum, double average, double min, double max, double histogramMax,
+                         double bucketWidth, List<Long> histogram) {
+
+    public PriceStats {
+        histogram = List.copyOf(histogram);
+    }
+}
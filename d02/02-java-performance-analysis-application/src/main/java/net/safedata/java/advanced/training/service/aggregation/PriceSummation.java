@@ -0,0 +1,207 @@
+package net.safedata.java.advanced.training.service.aggregation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.DoubleBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Compensated summation over primitive prices. The small inputs are summed with a plain Neumaier loop; the larger
+ * ones are split in fixed-size chunks, each summed by a 4-lane unrolled TwoSum loop, and the chunk partials are always
+ * combined in the same order - so the parallel (fork/join) and the sequential runs produce the same total.
+ */
+@Component
+public class PriceSummation {
+
+    static final int SEQUENTIAL_THRESHOLD = 4096;
+    static final int CHUNK_SIZE = 16384;
+
+    private final ForkJoinPool forkJoinPool;
+    private final int parallelThreshold;
+
+    @Autowired
+    public PriceSummation(@Qualifier("cpuAggregationPool") final ForkJoinPool forkJoinPool,
+                          @Value("${product.summation.parallel-threshold:262144}") final int parallelThreshold) {
+        this.forkJoinPool = forkJoinPool;
+        this.parallelThreshold = Math.max(parallelThreshold, CHUNK_SIZE);
+    }
+
+    public double sum(final double[] values) {
+        return sum(values, 0, values.length).value();
+    }
+
+    public CompensatedSum sum(final double[] values, final int from, final int to) {
+        if (to - from < SEQUENTIAL_THRESHOLD) {
+            CompensatedSum sum = CompensatedSum.ZERO;
+            for (int index = from; index < to; index++) {
+                sum = sum.add(values[index]);
+            }
+            return sum;
+        }
+
+        return sumChunks(from, to, (chunkFrom, chunkTo) -> sumChunk(values, chunkFrom, chunkTo));
+    }
+
+    public CompensatedSum sum(final DoubleBuffer values, final int from, final int to) {
+        if (to - from < SEQUENTIAL_THRESHOLD) {
+            CompensatedSum sum = CompensatedSum.ZERO;
+            for (int index = from; index < to; index++) {
+                sum = sum.add(values.get(index));
+            }
+            return sum;
+        }
+
+        return sumChunks(from, to, (chunkFrom, chunkTo) -> sumChunk(values, chunkFrom, chunkTo));
+    }
+
+    // only the chunk loops are duplicated - the element reads stay monomorphic, so the unrolled loops can be
+    // vectorized; the splitting and the combining are shared, with one call per chunk
+    private CompensatedSum sumChunks(final int from, final int to, final ChunkSummation chunkSummation) {
+        final int chunksCount = (to - from + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        final CompensatedSum[] partials = new CompensatedSum[chunksCount];
+
+        if (to - from >= parallelThreshold && forkJoinPool.getParallelism() > 1) {
+            forkJoinPool.invoke(new ChunksTask(partials, 0, chunksCount, from, to, chunkSummation));
+        } else {
+            sumChunks(partials, 0, chunksCount, from, to, chunkSummation);
+        }
+
+        CompensatedSum sum = CompensatedSum.ZERO;
+        for (CompensatedSum partial : partials) {
+            sum = sum.add(partial);
+        }
+        return sum;
+    }
+
+    private static void sumChunks(final CompensatedSum[] partials, final int fromChunk, final int toChunk,
+                                  final int from, final int to, final ChunkSummation chunkSummation) {
+        for (int chunk = fromChunk; chunk < toChunk; chunk++) {
+            final int chunkFrom = from + chunk * CHUNK_SIZE;
+            partials[chunk] = chunkSummation.sum(chunkFrom, Math.min(chunkFrom + CHUNK_SIZE, to));
+        }
+    }
+
+    // four independent accumulators, to break the dependency chain of a single running sum; the rounding error of
+    // every addition is kept exactly by the branch-free TwoSum, whichever operand is larger (Kahan's is not)
+    private static CompensatedSum sumChunk(final double[] values, final int from, final int to) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        double c0 = 0, c1 = 0, c2 = 0, c3 = 0;
+
+        int index = from;
+        for (; index + 3 < to; index += 4) {
+            final double y0 = values[index];
+            final double y1 = values[index + 1];
+            final double y2 = values[index + 2];
+            final double y3 = values[index + 3];
+            final double t0 = s0 + y0;
+            final double t1 = s1 + y1;
+            final double t2 = s2 + y2;
+            final double t3 = s3 + y3;
+            final double z0 = t0 - s0;
+            final double z1 = t1 - s1;
+            final double z2 = t2 - s2;
+            final double z3 = t3 - s3;
+            c0 += (s0 - (t0 - z0)) + (y0 - z0);
+            c1 += (s1 - (t1 - z1)) + (y1 - z1);
+            c2 += (s2 - (t2 - z2)) + (y2 - z2);
+            c3 += (s3 - (t3 - z3)) + (y3 - z3);
+            s0 = t0;
+            s1 = t1;
+            s2 = t2;
+            s3 = t3;
+        }
+
+        CompensatedSum sum = combineLanes(s0, c0, s1, c1, s2, c2, s3, c3);
+        for (; index < to; index++) {
+            sum = sum.add(values[index]);
+        }
+        return sum;
+    }
+
+    private static CompensatedSum sumChunk(final DoubleBuffer values, final int from, final int to) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        double c0 = 0, c1 = 0, c2 = 0, c3 = 0;
+
+        int index = from;
+        for (; index + 3 < to; index += 4) {
+            final double y0 = values.get(index);
+            final double y1 = values.get(index + 1);
+            final double y2 = values.get(index + 2);
+            final double y3 = values.get(index + 3);
+            final double t0 = s0 + y0;
+            final double t1 = s1 + y1;
+            final double t2 = s2 + y2;
+            final double t3 = s3 + y3;
+            final double z0 = t0 - s0;
+            final double z1 = t1 - s1;
+            final double z2 = t2 - s2;
+            final double z3 = t3 - s3;
+            c0 += (s0 - (t0 - z0)) + (y0 - z0);
+            c1 += (s1 - (t1 - z1)) + (y1 - z1);
+            c2 += (s2 - (t2 - z2)) + (y2 - z2);
+            c3 += (s3 - (t3 - z3)) + (y3 - z3);
+            s0 = t0;
+            s1 = t1;
+            s2 = t2;
+            s3 = t3;
+        }
+
+        CompensatedSum sum = combineLanes(s0, c0, s1, c1, s2, c2, s3, c3);
+        for (; index < to; index++) {
+            sum = sum.add(values.get(index));
+        }
+        return sum;
+    }
+
+    private static CompensatedSum combineLanes(final double s0, final double c0, final double s1, final double c1,
+                                               final double s2, final double c2, final double s3, final double c3) {
+        return CompensatedSum.ZERO.add(new CompensatedSum(s0, c0))
+                                  .add(new CompensatedSum(s1, c1))
+                                  .add(new CompensatedSum(s2, c2))
+                                  .add(new CompensatedSum(s3, c3));
+    }
+
+    @FunctionalInterface
+    private interface ChunkSummation {
+        CompensatedSum sum(int from, int to);
+    }
+
+    // the tasks are never serialized, they only run on the pool
+    private static final class ChunksTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient CompensatedSum[] partials;
+        private final int fromChunk;
+        private final int toChunk;
+        private final int from;
+        private final int to;
+        private final transient ChunkSummation chunkSummation;
+
+        private ChunksTask(final CompensatedSum[] partials, final int fromChunk, final int toChunk, final int from,
+                           final int to, final ChunkSummation chunkSummation) {
+            this.partials = partials;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+            this.from = from;
+            this.to = to;
+            this.chunkSummation = chunkSummation;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk <= 4) {
+                sumChunks(partials, fromChunk, toChunk, from, to, chunkSummation);
+                return;
+            }
+
+            final int middle = (fromChunk + toChunk) >>> 1;
+            invokeAll(new ChunksTask(partials, fromChunk, middle, from, to, chunkSummation),
+                      new ChunksTask(partials, middle, toChunk, from, to, chunkSummation));
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package net.safedata.java.advanced.training.service.benchmark;
+
+import java.util.List;
+
+/**
+ * The server threading is the mode the HTTP requests are currently served in ('spring.threads.virtual.enabled')
+ */
+public record BenchmarkReport(BenchmarkWorkload workload, int requests, int concurrency, String serverThreading,
+                              List<BenchmarkResult> results) {
+}
@@ -0,0 +1,10 @@
+package net.safedata.java.advanced.training.service.benchmark;
+
+import net.safedata.java.advanced.training.aop.metrics.LatencyStats;
+
+/**
+ * The latencies are measured from the submission of a request, so they include the time spent waiting for a thread
+ */
+public record BenchmarkResult(ExecutionMode mode, int threads, long elapsedMillis, double requestsPerSecond,
+                              long failures, LatencyStats latency) {
+}
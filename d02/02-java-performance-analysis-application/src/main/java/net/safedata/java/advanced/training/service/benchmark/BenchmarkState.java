@@ -0,0 +1,9 @@
+package net.safedata.java.advanced.training.service.benchmark;
+
+public enum BenchmarkState {
+    // waiting for the runs started before it, as the runs are not overlapped
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,26 @@
+package net.safedata.java.advanced.training.service.benchmark;
+
+/**
+ * The report is set once the run is completed, the error once it has failed
+ */
+public record BenchmarkStatus(long id, BenchmarkState state, BenchmarkWorkload workload, int requests,
+                              int concurrency, BenchmarkReport report, String error) {
+
+    BenchmarkStatus running() {
+        return new BenchmarkStatus(id, BenchmarkState.RUNNING, workload, requests, concurrency, null, null);
+    }
+
+    BenchmarkStatus completed(final BenchmarkReport completedReport) {
+        return new BenchmarkStatus(id, BenchmarkState.COMPLETED, workload, requests, concurrency, completedReport,
+                null);
+    }
+
+    BenchmarkStatus failed(final Throwable cause) {
+        return new BenchmarkStatus(id, BenchmarkState.FAILED, workload, requests, concurrency, null,
+                cause.getMessage());
+    }
+
+    boolean isFinished() {
+        return state == BenchmarkState.COMPLETED || state == BenchmarkState.FAILED;
+    }
+}
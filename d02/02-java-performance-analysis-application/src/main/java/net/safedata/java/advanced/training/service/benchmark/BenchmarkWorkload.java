@@ -0,0 +1,8 @@
+package net.safedata.java.advanced.training.service.benchmark;
+
+public enum BenchmarkWorkload {
+    // the work of '/product/long/{productType}'
+    LONG_RUNNING,
+    // the work of '/product/long/sync/{productType}'
+    SYNCHRONIZED
+}
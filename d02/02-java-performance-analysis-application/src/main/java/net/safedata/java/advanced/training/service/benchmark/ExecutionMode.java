@@ -0,0 +1,8 @@
+package net.safedata.java.advanced.training.service.benchmark;
+
+public enum ExecutionMode {
+    // a fixed pool, sized as the Tomcat request pool
+    PLATFORM,
+    // a new virtual thread per request
+    VIRTUAL
+}
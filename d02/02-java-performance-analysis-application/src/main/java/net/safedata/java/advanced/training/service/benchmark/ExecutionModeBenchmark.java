@@ -0,0 +1,176 @@
+package net.safedata.java.advanced.training.service.benchmark;
+
+import jakarta.annotation.PreDestroy;
+import net.safedata.java.advanced.training.aop.metrics.LatencyHistogram;
+import net.safedata.java.advanced.training.model.Product;
+import net.safedata.java.advanced.training.service.ProductService;
+import net.safedata.java.advanced.training.service.concurrent.SingleFlight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the same blocking endpoint work on a platform pool sized as the Tomcat one and on virtual threads, with a
+ * fixed number of concurrent clients. The request serving mode itself is fixed at startup, so the comparison runs
+ * the work in process. The runs are executed one at a time, in the background, so they neither hold a request thread
+ * nor skew each other; the listings are built without the cache, as every request has its own product type.
+ */
+@Service
+public class ExecutionModeBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionModeBenchmark.class);
+
+    private static final int MAX_REQUESTS = 10_000;
+    // the finished runs kept for the status queries, the oldest ones are dropped first
+    private static final int RETAINED_RUNS = 20;
+
+    private final ProductService productService;
+    private final Environment environment;
+    private final int platformThreads;
+
+    private final AtomicLong runs = new AtomicLong();
+    // ordered by id, so the oldest finished runs are pruned first
+    private final Map<Long, BenchmarkStatus> statuses = new ConcurrentSkipListMap<>();
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(Thread.ofPlatform()
+                                                                                   .name("benchmark-runner")
+                                                                                   .factory());
+
+    public ExecutionModeBenchmark(final ProductService productService, final Environment environment,
+                                  @Value("${server.tomcat.threads.max:200}") final int platformThreads) {
+        this.productService = productService;
+        this.environment = environment;
+        this.platformThreads = platformThreads;
+    }
+
+    public BenchmarkStatus start(final BenchmarkWorkload workload, final int requests, final int concurrency) {
+        if (requests < 1 || requests > MAX_REQUESTS || concurrency < 1 || concurrency > requests) {
+            throw new IllegalArgumentException("The requests should be between 1 and " + MAX_REQUESTS +
+                    ", the concurrency between 1 and the requests");
+        }
+
+        final BenchmarkStatus queued = new BenchmarkStatus(runs.incrementAndGet(), BenchmarkState.QUEUED, workload,
+                requests, concurrency, null, null);
+        statuses.put(queued.id(), queued);
+        runner.execute(() -> {
+            try {
+                execute(queued);
+            } finally {
+                pruneFinishedRuns();
+            }
+        });
+        return queued;
+    }
+
+    public Optional<BenchmarkStatus> getStatus(final long id) {
+        return Optional.ofNullable(statuses.get(id));
+    }
+
+    public List<BenchmarkStatus> getAllStatuses() {
+        return List.copyOf(statuses.values());
+    }
+
+    private void execute(final BenchmarkStatus queued) {
+        statuses.put(queued.id(), queued.running());
+        try {
+            final String prefix = "benchmark-" + queued.id();
+            final List<BenchmarkResult> results = List.of(
+                    run(queued, ExecutionMode.PLATFORM, prefix + "-platform-"),
+                    run(queued, ExecutionMode.VIRTUAL, prefix + "-virtual-"));
+
+            statuses.put(queued.id(), queued.completed(new BenchmarkReport(queued.workload(), queued.requests(),
+                    queued.concurrency(), Threading.VIRTUAL.isActive(environment) ? "virtual" : "platform",
+                    results)));
+        } catch (final RuntimeException e) {
+            statuses.put(queued.id(), queued.failed(e));
+            LOGGER.error("The benchmark run {} has failed", queued.id(), e);
+        }
+    }
+
+    // a semaphore plays the concurrent clients - a client sends its next request when the previous one is answered
+    private BenchmarkResult run(final BenchmarkStatus benchmark, final ExecutionMode mode,
+                                final String productTypePrefix) {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder failures = new LongAdder();
+        final Semaphore clients = new Semaphore(benchmark.concurrency());
+        // the coalescing of the synchronized endpoint, without sharing its in-flight keys
+        final SingleFlight<String, List<Product>> coalescer = new SingleFlight<>();
+
+        final long start = System.nanoTime();
+        try (ExecutorService executor = newExecutor(mode)) {
+            for (int request = 0; request < benchmark.requests(); request++) {
+                clients.acquireUninterruptibly();
+
+                final String productType = productTypePrefix + request;
+                final long submitted = System.nanoTime();
+                executor.execute(() -> {
+                    try {
+                        execute(benchmark.workload(), productType, coalescer);
+                    } catch (final RuntimeException e) {
+                        failures.increment();
+                    } finally {
+                        latency.record(System.nanoTime() - submitted);
+                        clients.release();
+                    }
+                });
+            }
+        }
+        final long elapsedNanos = System.nanoTime() - start;
+        final double requestsPerSecond = benchmark.requests() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+
+        return new BenchmarkResult(mode, mode == ExecutionMode.PLATFORM ? platformThreads : benchmark.concurrency(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), requestsPerSecond, failures.sum(),
+                latency.snapshot().toStats());
+    }
+
+    private ExecutorService newExecutor(final ExecutionMode mode) {
+        return switch (mode) {
+            case PLATFORM -> Executors.newFixedThreadPool(platformThreads);
+            case VIRTUAL -> Executors.newVirtualThreadPerTaskExecutor();
+        };
+    }
+
+    // the one-off product types would only evict the real listings from the cache
+    private void execute(final BenchmarkWorkload workload, final String productType,
+                         final SingleFlight<String, List<Product>> coalescer) {
+        switch (workload) {
+            case LONG_RUNNING -> productService.buildALotOfProducts();
+            case SYNCHRONIZED -> coalescer.execute(productType, productService::buildALotOfProducts);
+        }
+    }
+
+    // the queued and the running benchmarks are always kept
+    private void pruneFinishedRuns() {
+        long finishedRuns = statuses.values()
+                                    .stream()
+                                    .filter(BenchmarkStatus::isFinished)
+                                    .count();
+
+        final Iterator<BenchmarkStatus> iterator = statuses.values().iterator();
+        while (finishedRuns > RETAINED_RUNS && iterator.hasNext()) {
+            if (iterator.next().isFinished()) {
+                iterator.remove();
+                finishedRuns--;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+}
@@ -0,0 +1,38 @@
+package net.safedata.java.advanced.training.service.bulk;
+
+/**
+ * Hill climbing on the measured throughput - the batch size keeps moving in the same direction while the rows / second
+ * improve, and turns around when they drop
+ */
+final class AdaptiveBatchSizer {
+
+    private static final double STEP = 1.5;
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+
+    private int batchSize;
+    private double lastThroughput;
+    private boolean growing = true;
+
+    AdaptiveBatchSizer(final int minBatchSize, final int maxBatchSize) {
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSize = minBatchSize;
+    }
+
+    int getBatchSize() {
+        return batchSize;
+    }
+
+    void record(final int rows, final long elapsedNanos) {
+        final double throughput = rows / (double) Math.max(elapsedNanos, 1);
+        if (throughput < lastThroughput) {
+            growing = !growing;
+        }
+        lastThroughput = throughput;
+
+        final int nextBatchSize = (int) (growing ? batchSize * STEP : batchSize / STEP);
+        batchSize = Math.max(minBatchSize, Math.min(maxBatchSize, nextBatchSize));
+    }
+}
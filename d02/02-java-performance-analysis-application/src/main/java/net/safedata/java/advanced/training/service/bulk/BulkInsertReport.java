@@ -0,0 +1,5 @@
+package net.safedata.java.advanced.training.service.bulk;
+
+public record BulkInsertReport(long rows, long batches, long commits, long millis, long rowsPerSecond,
+                               int lastBatchSize) {
+}
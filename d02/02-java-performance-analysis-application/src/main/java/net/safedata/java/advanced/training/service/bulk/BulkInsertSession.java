@@ -0,0 +1,194 @@
+package net.safedata.java.advanced.training.service.bulk;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Buffers the added rows in primitive columns and writes them as JDBC batches, committing every 'commit rows'.
+ * Only an explicit finish() commits the last rows and reports the session - closing it without one, e.g. when an
+ * exception escapes a try-with-resources block, rolls back the uncommitted rows. The transaction is bound to the
+ * calling thread, so a session must be used by a single thread.
+ */
+public class BulkInsertSession implements AutoCloseable {
+
+    private static final String INSERT_PRODUCT = "INSERT INTO product (id, name, price) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final IdBlockAllocator idBlockAllocator;
+    private final AdaptiveBatchSizer batchSizer;
+    private final long commitRows;
+    private final Runnable onCommit;
+    private final Consumer<BulkInsertReport> onFinish;
+
+    private final long[] ids;
+    private final String[] names;
+    private final double[] prices;
+    private int buffered;
+
+    private long nextId;
+    private long idBlockEnd;
+
+    private TransactionStatus transaction;
+    private long uncommittedRows;
+
+    private final long start = System.nanoTime();
+    private long rows;
+    private long committedRows;
+    private long batches;
+    private long commits;
+    private boolean closed;
+
+    BulkInsertSession(final JdbcTemplate jdbcTemplate, final PlatformTransactionManager transactionManager,
+                      final IdBlockAllocator idBlockAllocator, final AdaptiveBatchSizer batchSizer,
+                      final int maxBatchSize, final long commitRows, final Runnable onCommit,
+                      final Consumer<BulkInsertReport> onFinish) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.idBlockAllocator = idBlockAllocator;
+        this.batchSizer = batchSizer;
+        this.commitRows = commitRows;
+        this.onCommit = onCommit;
+        this.onFinish = onFinish;
+
+        this.ids = new long[maxBatchSize];
+        this.names = new String[maxBatchSize];
+        this.prices = new double[maxBatchSize];
+    }
+
+    // the id is taken from the reserved blocks
+    public void add(final String name, final double price) {
+        if (nextId == idBlockEnd) {
+            nextId = idBlockAllocator.allocateBlock();
+            idBlockEnd = nextId + idBlockAllocator.getBlockSize();
+        }
+        add(nextId++, name, price);
+    }
+
+    public void add(final long id, final String name, final double price) {
+        if (closed) {
+            throw new IllegalStateException("The bulk insert session is closed");
+        }
+
+        ids[buffered] = id;
+        names[buffered] = name;
+        prices[buffered] = price;
+        if (++buffered >= batchSizer.getBatchSize()) {
+            flush();
+        }
+    }
+
+    public long getRows() {
+        return rows + buffered;
+    }
+
+    // the rows which stay in the table even if the session is closed without finishing it
+    public long getCommittedRows() {
+        return committedRows;
+    }
+
+    // writes and commits the buffered rows
+    public BulkInsertReport finish() {
+        if (closed) {
+            throw new IllegalStateException("The bulk insert session is closed");
+        }
+
+        flush();
+        commit();
+        closed = true;
+
+        final long elapsedNanos = System.nanoTime() - start;
+        final long rowsPerSecond = elapsedNanos == 0 ? 0 : rows * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        final BulkInsertReport report = new BulkInsertReport(rows, batches, commits,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rowsPerSecond, batchSizer.getBatchSize());
+        onFinish.accept(report);
+        return report;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        buffered = 0;
+        rollback();
+    }
+
+    private void flush() {
+        if (buffered == 0) {
+            return;
+        }
+
+        if (transaction == null) {
+            transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        }
+
+        final int batchRows = buffered;
+        final long batchStart = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(INSERT_PRODUCT, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(final PreparedStatement preparedStatement, final int index) throws SQLException {
+                    preparedStatement.setLong(1, ids[index]);
+                    preparedStatement.setString(2, names[index]);
+                    preparedStatement.setDouble(3, prices[index]);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batchRows;
+                }
+            });
+        } catch (final RuntimeException e) {
+            rollback();
+            throw e;
+        }
+        batchSizer.record(batchRows, System.nanoTime() - batchStart);
+
+        rows += batchRows;
+        batches++;
+        uncommittedRows += batchRows;
+        buffered = 0;
+        Arrays.fill(names, 0, batchRows, null);
+
+        if (uncommittedRows >= commitRows) {
+            commit();
+        }
+    }
+
+    private void commit() {
+        if (transaction == null) {
+            return;
+        }
+
+        // cleared first, so a failed commit is not rolled back again on close
+        final TransactionStatus committed = transaction;
+        transaction = null;
+        transactionManager.commit(committed);
+        committedRows = rows;
+        uncommittedRows = 0;
+        commits++;
+        onCommit.run();
+    }
+
+    private void rollback() {
+        if (transaction == null) {
+            return;
+        }
+
+        closed = true;
+        transactionManager.rollback(transaction);
+        transaction = null;
+    }
+}
@@ -0,0 +1,35 @@
+package net.safedata.java.advanced.training.service.bulk;
+
+import net.safedata.java.advanced.training.domain.model.ProductEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Reserves blocks of product ids from the same sequence used by Hibernate - one round-trip for every block
+ */
+@Component
+public class IdBlockAllocator {
+
+    private static final String NEXT_BLOCK = "SELECT NEXT VALUE FOR " + ProductEntity.ID_SEQUENCE;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdBlockAllocator(final DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // the first id of the reserved block
+    public long allocateBlock() {
+        final Long blockStart = jdbcTemplate.queryForObject(NEXT_BLOCK, Long.class);
+        if (blockStart == null) {
+            throw new IllegalStateException("The '" + ProductEntity.ID_SEQUENCE + "' sequence returned no value");
+        }
+        return blockStart;
+    }
+
+    public int getBlockSize() {
+        return ProductEntity.ID_BLOCK_SIZE;
+    }
+}
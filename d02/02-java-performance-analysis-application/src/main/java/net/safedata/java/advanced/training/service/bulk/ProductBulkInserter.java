@@ -0,0 +1,89 @@
+package net.safedata.java.advanced.training.service.bulk;
+
+import net.safedata.java.advanced.training.domain.model.ProductEntity;
+import net.safedata.java.advanced.training.domain.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * High-throughput product inserts - ids allocated in blocks, JDBC batches of adaptive size and chunked commits
+ */
+@Service
+public class ProductBulkInserter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductBulkInserter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final IdBlockAllocator idBlockAllocator;
+    private final CacheManager cacheManager;
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final long commitRows;
+
+    private final LongAdder insertedRows = new LongAdder();
+    private final AtomicReference<BulkInsertReport> lastReport = new AtomicReference<>();
+
+    public ProductBulkInserter(final DataSource dataSource, final PlatformTransactionManager transactionManager,
+                               final IdBlockAllocator idBlockAllocator, final CacheManager cacheManager,
+                               @Value("${product.bulk-insert.min-batch-size:100}") final int minBatchSize,
+                               @Value("${product.bulk-insert.max-batch-size:10000}") final int maxBatchSize,
+                               @Value("${product.bulk-insert.commit-rows:50000}") final long commitRows) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionManager = transactionManager;
+        this.idBlockAllocator = idBlockAllocator;
+        this.cacheManager = cacheManager;
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.commitRows = commitRows;
+    }
+
+    public BulkInsertSession openSession() {
+        return new BulkInsertSession(jdbcTemplate, transactionManager, idBlockAllocator,
+                new AdaptiveBatchSizer(minBatchSize, maxBatchSize), maxBatchSize, commitRows,
+                this::invalidateCachedQueries, this::record);
+    }
+
+    // the ids of the given entities are ignored, new ones are allocated
+    public BulkInsertReport insert(final Collection<ProductEntity> products) {
+        try (BulkInsertSession session = openSession()) {
+            products.forEach(product -> session.add(product.getName(), product.getPrice()));
+            return session.finish();
+        }
+    }
+
+    public long getInsertedRows() {
+        return insertedRows.sum();
+    }
+
+    public BulkInsertReport getLastReport() {
+        return lastReport.get();
+    }
+
+    // the JDBC writes bypass the repository, so its cached query results are invalidated on every commit
+    private void invalidateCachedQueries() {
+        Optional.ofNullable(cacheManager.getCache(ProductRepository.PRODUCT_QUERIES))
+                .ifPresent(Cache::clear);
+    }
+
+    private void record(final BulkInsertReport report) {
+        insertedRows.add(report.rows());
+        lastReport.set(report);
+
+        LOGGER.info("Inserted {} products in {} ms ({} rows / second, {} batches, {} commits)", report.rows(),
+                report.millis(), report.rowsPerSecond(), report.batches(), report.commits());
+    }
+}
@@ -0,0 +1,5 @@
+package net.safedata.java.advanced.training.service.cache;
+
+public record CacheStats(long hits, long misses, double hitRate, long evictions, long admissionRejections,
+                         long expirations, int size, int capacity) {
+}
@@ -0,0 +1,74 @@
+package net.safedata.java.advanced.training.service.cache;
+
+/**
+ * Count-min sketch of the keys access frequency - four rows of 4-bit (saturating at 15) counters, which are all
+ * halved once the sample size is reached, so the old popularity fades away. Not thread-safe.
+ */
+final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    private final byte[] counters;
+    private final int width;
+    private final int sampleSize;
+
+    private int additions;
+
+    FrequencySketch(final int capacity) {
+        int tableWidth = 16;
+        while (tableWidth < capacity) {
+            tableWidth <<= 1;
+        }
+
+        this.width = tableWidth;
+        this.counters = new byte[DEPTH * tableWidth];
+        this.sampleSize = 10 * Math.max(capacity, 1);
+    }
+
+    void increment(final Object key) {
+        final int hash = spread(key.hashCode());
+
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            final int index = indexOf(hash, row);
+            if (counters[index] < MAX_COUNT) {
+                counters[index]++;
+                added = true;
+            }
+        }
+
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    int frequency(final Object key) {
+        final int hash = spread(key.hashCode());
+
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, counters[indexOf(hash, row)]);
+        }
+        return frequency;
+    }
+
+    private void reset() {
+        for (int index = 0; index < counters.length; index++) {
+            counters[index] >>>= 1;
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(final int hash, final int row) {
+        long value = (hash + SEEDS[row]) * SEEDS[row];
+        value += value >>> 32;
+        return row * width + ((int) value & (width - 1));
+    }
+
+    private static int spread(final int hashCode) {
+        final int hash = hashCode * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,4 @@
+package net.safedata.java.advanced.training.service.cache;
+
+public record ProductListingKey(String productType, String retrievingType) {
+}
@@ -0,0 +1,151 @@
+package net.safedata.java.advanced.training.service.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded cache with a W-TinyLFU admission policy - the new entries land in a small LRU window; an entry leaving the
+ * window is admitted in the main LRU area only if its estimated access frequency is higher than the one of the main
+ * area's victim, so the one-off keys cannot evict the popular ones. The entries expire after the configured TTL.
+ */
+public class TinyLfuCache<K, V> {
+
+    private static final double WINDOW_RATIO = 0.01;
+
+    private final int capacity;
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final long ttlNanos;
+
+    private final Map<K, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<K, Entry<V>> main = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder admissionRejections = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public TinyLfuCache(final int capacity, final Duration ttl) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("The capacity must be at least 2");
+        }
+
+        this.capacity = capacity;
+        this.windowCapacity = Math.max(1, (int) (capacity * WINDOW_RATIO));
+        this.mainCapacity = capacity - windowCapacity;
+        this.ttlNanos = ttl.toNanos();
+        this.sketch = new FrequencySketch(capacity);
+    }
+
+    // the value is loaded outside the lock, so a slow loader does not block the other keys
+    public V get(final K key, final Function<K, V> loader) {
+        final V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        final V loaded = loader.apply(key);
+        if (loaded != null) {
+            put(key, loaded);
+        }
+        return loaded;
+    }
+
+    public synchronized V getIfPresent(final K key) {
+        sketch.increment(key);
+
+        Map<K, Entry<V>> area = window;
+        Entry<V> entry = window.get(key);
+        if (entry == null) {
+            area = main;
+            entry = main.get(key);
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        if (entry.isExpired(System.nanoTime())) {
+            area.remove(key);
+            expirations.increment();
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry.value;
+    }
+
+    public synchronized void put(final K key, final V value) {
+        final Entry<V> entry = new Entry<>(value, System.nanoTime() + ttlNanos);
+        if (window.containsKey(key)) {
+            window.put(key, entry);
+            return;
+        }
+        if (main.containsKey(key)) {
+            main.put(key, entry);
+            return;
+        }
+
+        window.put(key, entry);
+        if (window.size() > windowCapacity) {
+            admitWindowVictim();
+        }
+    }
+
+    public synchronized void invalidate(final K key) {
+        if (window.remove(key) == null) {
+            main.remove(key);
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        window.clear();
+        main.clear();
+    }
+
+    public synchronized CacheStats getStats() {
+        final long hitsCount = hits.sum();
+        final long missesCount = misses.sum();
+        final long requests = hitsCount + missesCount;
+
+        return new CacheStats(hitsCount, missesCount, requests == 0 ? 0 : (double) hitsCount / requests,
+                evictions.sum(), admissionRejections.sum(), expirations.sum(), window.size() + main.size(), capacity);
+    }
+
+    private void admitWindowVictim() {
+        final Iterator<Map.Entry<K, Entry<V>>> windowIterator = window.entrySet().iterator();
+        final Map.Entry<K, Entry<V>> candidate = windowIterator.next();
+        windowIterator.remove();
+
+        if (main.size() < mainCapacity) {
+            main.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+
+        final Iterator<Map.Entry<K, Entry<V>>> mainIterator = main.entrySet().iterator();
+        final Map.Entry<K, Entry<V>> victim = mainIterator.next();
+        evictions.increment();
+
+        final boolean victimExpired = victim.getValue().isExpired(System.nanoTime());
+        if (victimExpired || sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey())) {
+            mainIterator.remove();
+            main.put(candidate.getKey(), candidate.getValue());
+        } else {
+            admissionRejections.increment();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+        private boolean isExpired(final long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package net.safedata.java.advanced.training.service.cache;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Exposes a {@link TinyLfuCache} as a Spring cache, to be used by the caching annotations. Inside a transaction, the
+ * puts and the evictions are applied only after its commit, so the cache never holds a rolled back write.
+ */
+public class TinyLfuSpringCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final TinyLfuCache<Object, Object> cache;
+
+    public TinyLfuSpringCache(final String name, final TinyLfuCache<Object, Object> cache) {
+        super(false);
+        this.name = name;
+        this.cache = cache;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public TinyLfuCache<Object, Object> getNativeCache() {
+        return cache;
+    }
+
+    @Override
+    protected Object lookup(final Object key) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(final Object key, final Callable<T> valueLoader) {
+        return (T) fromStoreValue(cache.get(key, ignored -> {
+            try {
+                return toStoreValue(valueLoader.call());
+            } catch (final Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }));
+    }
+
+    @Override
+    public void put(final Object key, final Object value) {
+        final Object storeValue = toStoreValue(value);
+        afterCommit(() -> cache.put(key, storeValue));
+    }
+
+    @Override
+    public void evict(final Object key) {
+        afterCommit(() -> cache.invalidate(key));
+    }
+
+    @Override
+    public void clear() {
+        afterCommit(cache::invalidateAll);
+    }
+
+    private static void afterCommit(final Runnable operation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            operation.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                operation.run();
+            }
+        });
+    }
+}
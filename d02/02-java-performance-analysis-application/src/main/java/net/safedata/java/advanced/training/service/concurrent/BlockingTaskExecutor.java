@@ -0,0 +1,172 @@
+package net.safedata.java.advanced.training.service.concurrent;
+
+import jakarta.annotation.PreDestroy;
+import net.safedata.java.advanced.training.aop.metrics.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The blocking work is kept off the fork/join pools - the tasks are run by a bounded bulkhead, which rejects them
+ * when both its threads and its queue are full, while the blocking calls made on a fork/join worker are wrapped in
+ * a {@link ForkJoinPool.ManagedBlocker}, so the pool can compensate with a spare thread.
+ */
+@Component
+public class BlockingTaskExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BlockingTaskExecutor.class);
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final String COMMON_POOL_WORKER = "ForkJoinPool.commonPool-worker-";
+    private static final int INSPECTED_FRAMES = 8;
+    // an idle worker waits for work, a joining one waits for a subtask - neither is a blocking call
+    private static final Set<String> NON_BLOCKING_WAITS = Set.of(ForkJoinPool.class.getName() + ".awaitWork",
+            ForkJoinTask.class.getName() + ".awaitDone", ForkJoinTask.class.getName() + ".join");
+
+    @FunctionalInterface
+    public interface BlockingCall {
+        void run() throws InterruptedException;
+    }
+
+    private final ThreadPoolExecutor bulkhead;
+    private final int queueCapacity;
+
+    private final LatencyHistogram queueTime = new LatencyHistogram();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder managedBlocks = new LongAdder();
+    private final LongAdder commonPoolBlockingCalls = new LongAdder();
+    private final AtomicBoolean commonPoolBlockingReported = new AtomicBoolean();
+
+    public BlockingTaskExecutor(@Value("${execution.blocking.threads:8}") final int threads,
+                                @Value("${execution.blocking.queue-capacity:32}") final int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        this.bulkhead = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Thread.ofPlatform()
+                                                               .name("blocking-task-", 0)
+                                                               .daemon(true)
+                                                               .factory());
+    }
+
+    public CompletableFuture<Void> run(final BlockingCall call) {
+        return supply(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    // a rejected task is returned as a failed future, with a RejectedExecutionException
+    public <T> CompletableFuture<T> supply(final Callable<T> task) {
+        submitted.increment();
+        final long submittedAt = System.nanoTime();
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            bulkhead.execute(() -> {
+                queueTime.record(System.nanoTime() - submittedAt);
+                try {
+                    result.complete(task.call());
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(e);
+                } catch (final Exception e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    completed.increment();
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            rejected.increment();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    // for the blocking calls which cannot be moved to the bulkhead; a no-op wrapper outside the fork/join pools
+    public void managedBlock(final BlockingCall call) throws InterruptedException {
+        final ForkJoinPool pool = ForkJoinTask.getPool();
+        if (pool == null) {
+            call.run();
+            return;
+        }
+
+        if (pool == ForkJoinPool.commonPool()) {
+            commonPoolBlockingCalls.increment();
+            if (commonPoolBlockingReported.compareAndSet(false, true)) {
+                LOGGER.warn("A blocking call was made on the common fork/join pool, from '{}'; the next ones are " +
+                        "only counted", Thread.currentThread().getName(), new Throwable("The blocking call site"));
+            }
+        }
+
+        managedBlocks.increment();
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+            private boolean done;
+
+            @Override
+            public boolean block() throws InterruptedException {
+                call.run();
+                done = true;
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return done;
+            }
+        });
+    }
+
+    // the thread dump stops all the threads at a safepoint, so the common pool workers are only inspected on demand
+    public BlockingTaskStats getStats(final boolean inspectCommonPool) {
+        final int threads = bulkhead.getMaximumPoolSize();
+        final int busyThreads = bulkhead.getActiveCount();
+        final int queuedTasks = bulkhead.getQueue().size();
+
+        return new BlockingTaskStats(threads, busyThreads, queuedTasks, queueCapacity,
+                (double) (busyThreads + queuedTasks) / (threads + queueCapacity), submitted.sum(), completed.sum(),
+                rejected.sum(), queueTime.snapshot().toStats(), managedBlocks.sum(), commonPoolBlockingCalls.sum(),
+                inspectCommonPool ? countBlockedWorkers(COMMON_POOL_WORKER) : -1);
+    }
+
+    // catches the blocking calls which bypass this executor - a waiting worker is blocked unless it is idle or joining
+    static int countBlockedWorkers(final String workerNamePrefix) {
+        int blocked = 0;
+        for (ThreadInfo threadInfo : THREAD_MX_BEAN.dumpAllThreads(false, false, INSPECTED_FRAMES)) {
+            if (threadInfo != null && threadInfo.getThreadName().startsWith(workerNamePrefix) &&
+                    threadInfo.getThreadState() != Thread.State.RUNNABLE && !isWaitingForWork(threadInfo)) {
+                blocked++;
+            }
+        }
+        return blocked;
+    }
+
+    private static boolean isWaitingForWork(final ThreadInfo threadInfo) {
+        for (StackTraceElement frame : threadInfo.getStackTrace()) {
+            if (NON_BLOCKING_WAITS.contains(frame.getClassName() + "." + frame.getMethodName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bulkhead.shutdownNow();
+    }
+}
@@ -0,0 +1,12 @@
+package net.safedata.java.advanced.training.service.concurrent;
+
+import net.safedata.java.advanced.training.aop.metrics.LatencyStats;
+
+/**
+ * The saturation is the share of the bulkhead (threads + queue) in use; the queue time is in nanoseconds. The blocked
+ * common pool workers are -1 unless they were inspected.
+ */
+public record BlockingTaskStats(int threads, int busyThreads, int queuedTasks, int queueCapacity, double saturation,
+                                long submittedTasks, long completedTasks, long rejectedTasks, LatencyStats queueTime,
+                                long managedBlocks, long commonPoolBlockingCalls, int blockedCommonPoolWorkers) {
+}
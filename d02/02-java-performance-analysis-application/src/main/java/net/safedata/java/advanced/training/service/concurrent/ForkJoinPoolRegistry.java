@@ -0,0 +1,54 @@
+package net.safedata.java.advanced.training.service.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * The named fork/join pools, one per workload class, plus the common pool - only reported, as its parallelism can no
+ * longer be changed once it is initialized. A parallel stream started from a task of a pool runs on that pool.
+ */
+public class ForkJoinPoolRegistry {
+
+    public static final String CPU_AGGREGATION = "cpu-aggregation";
+    public static final String ASYNC_GLUE = "async-glue";
+    public static final String COMMON = "common";
+
+    private final Map<String, ForkJoinPool> pools;
+
+    public ForkJoinPoolRegistry(final Map<String, ForkJoinPool> pools) {
+        final Map<String, ForkJoinPool> registeredPools = new LinkedHashMap<>(pools);
+        registeredPools.put(COMMON, ForkJoinPool.commonPool());
+        this.pools = Collections.unmodifiableMap(registeredPools);
+    }
+
+    public ForkJoinPool get(final String name) {
+        final ForkJoinPool pool = pools.get(name);
+        if (pool == null) {
+            throw new IllegalArgumentException("There is no fork/join pool named '" + name + "'");
+        }
+        return pool;
+    }
+
+    // e.g. invoke(CPU_AGGREGATION, () -> values.parallelStream()...) --> the stream is split on the named pool
+    public <T> T invoke(final String name, final Supplier<T> task) {
+        final ForkJoinPool pool = get(name);
+        if (ForkJoinTask.getPool() == pool) {
+            return task.get();
+        }
+        return pool.submit(task::get).join();
+    }
+
+    public List<ForkJoinPoolStats> getReport() {
+        final List<ForkJoinPoolStats> report = new ArrayList<>(pools.size());
+        pools.forEach((name, pool) -> report.add(new ForkJoinPoolStats(name, pool.getParallelism(),
+                pool.getAsyncMode(), pool.getPoolSize(), pool.getActiveThreadCount(), pool.getRunningThreadCount(),
+                pool.getQueuedSubmissionCount(), pool.getQueuedTaskCount(), pool.getStealCount())));
+        return report;
+    }
+}
@@ -0,0 +1,5 @@
+package net.safedata.java.advanced.training.service.concurrent;
+
+public record ForkJoinPoolStats(String name, int parallelism, boolean asyncMode, int poolSize, int activeThreads,
+                                int runningThreads, int queuedSubmissions, long queuedTasks, long stealCount) {
+}
@@ -0,0 +1,71 @@
+package net.safedata.java.advanced.training.service.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Per-key request coalescing - the concurrent callers for the same key share a single in-flight computation, while
+ * the callers for different keys run in parallel. The waiting is done without holding any monitor.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder coalescedCalls = new LongAdder();
+    private final LongAdder coalescedWaitNanos = new LongAdder();
+    private final LongAccumulator maxCoalescedWaitNanos = new LongAccumulator(Math::max, 0);
+
+    public V execute(final K key, final Supplier<V> computation) {
+        calls.increment();
+
+        final CompletableFuture<V> ownFlight = new CompletableFuture<>();
+        final CompletableFuture<V> existingFlight = inFlight.putIfAbsent(key, ownFlight);
+        if (existingFlight == null) {
+            return compute(key, computation, ownFlight);
+        }
+
+        coalescedCalls.increment();
+        final long start = System.nanoTime();
+        try {
+            return existingFlight.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        } finally {
+            final long waited = System.nanoTime() - start;
+            coalescedWaitNanos.add(waited);
+            maxCoalescedWaitNanos.accumulate(waited);
+        }
+    }
+
+    private V compute(final K key, final Supplier<V> computation, final CompletableFuture<V> flight) {
+        try {
+            final V value = computation.get();
+            flight.complete(value);
+            return value;
+        } catch (final RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public SingleFlightStats getStats() {
+        final long coalesced = coalescedCalls.sum();
+        final long totalWaitNanos = coalescedWaitNanos.sum();
+
+        return new SingleFlightStats(calls.sum(), coalesced, inFlight.size(),
+                coalesced == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos / coalesced),
+                TimeUnit.NANOSECONDS.toMillis(maxCoalescedWaitNanos.get()));
+    }
+}
@@ -0,0 +1,5 @@
+package net.safedata.java.advanced.training.service.concurrent;
+
+public record SingleFlightStats(long calls, long coalescedCalls, int inFlightKeys, long averageWaitMillis,
+                                long maxWaitMillis) {
+}
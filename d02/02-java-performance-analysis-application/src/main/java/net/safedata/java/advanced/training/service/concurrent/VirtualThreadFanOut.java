@@ -0,0 +1,82 @@
+package net.safedata.java.advanced.training.service.concurrent;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Runs each task of a request on its own virtual thread, scoped to the request - the results are assembled in the
+ * tasks order, while the first failure (in completion order) or the deadline cancels all the other tasks and fails
+ * the whole fan-out, so a partial result is never returned.
+ */
+@Component
+public class VirtualThreadFanOut {
+
+    private final boolean enabled;
+    private final Duration deadline;
+
+    private final ThreadFactory threadFactory = Thread.ofVirtual()
+                                                      .name("fan-out-", 0)
+                                                      .factory();
+
+    public VirtualThreadFanOut(@Value("${product.listing.fan-out.enabled:true}") final boolean enabled,
+                               @Value("${product.listing.fan-out.deadline:5s}") final Duration deadline) {
+        this.enabled = enabled;
+        this.deadline = deadline;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public <T> List<T> fanOut(final int tasksCount, final IntFunction<T> task) {
+        final long deadlineNanos = System.nanoTime() + deadline.toNanos();
+
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(threadFactory)) {
+            // the results are taken in completion order, so a failure is seen as soon as it happens
+            final CompletionService<IndexedResult<T>> completionService = new ExecutorCompletionService<>(executor);
+            for (int index = 0; index < tasksCount; index++) {
+                final int taskIndex = index;
+                completionService.submit(() -> new IndexedResult<>(taskIndex, task.apply(taskIndex)));
+            }
+
+            final List<T> results = new ArrayList<>(Collections.nCopies(tasksCount, null));
+            for (int completed = 0; completed < tasksCount; completed++) {
+                final Future<IndexedResult<T>> future = completionService.poll(
+                        Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (future == null) {
+                    executor.shutdownNow();
+                    throw new IllegalStateException((tasksCount - completed) + " out of " + tasksCount +
+                            " fan-out tasks did not complete in " + deadline.toMillis() + " ms");
+                }
+
+                try {
+                    final IndexedResult<T> result = future.get();
+                    results.set(result.index(), result.value());
+                } catch (final ExecutionException e) {
+                    executor.shutdownNow();
+                    throw new IllegalStateException("A fan-out task has failed", e.getCause());
+                }
+            }
+            return results;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the fan-out tasks", e);
+        }
+    }
+
+    private record IndexedResult<T>(int index, T value) {}
+}
@@ -0,0 +1,18 @@
+package net.safedata.java.advanced.training.service.export;
+
+public enum ExportFormat {
+    // one JSON object per line
+    NDJSON("application/x-ndjson"),
+    // a single JSON array, flushed in chunks
+    JSON("application/json");
+
+    private final String contentType;
+
+    ExportFormat(final String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
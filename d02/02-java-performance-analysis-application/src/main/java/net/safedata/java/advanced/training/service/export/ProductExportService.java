@@ -0,0 +1,132 @@
+package net.safedata.java.advanced.training.service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Streams the database products straight from a forward-only cursor to the response - no row is materialized as an
+ * entity or kept in a list, so the memory stays constant and the first bytes are sent right after the first fetch.
+ */
+@Service
+public class ProductExportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductExportService.class);
+
+    private static final String SELECT_PRODUCTS = "SELECT id, name, price FROM product";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final int fetchSize;
+    private final int flushRows;
+
+    public ProductExportService(final DataSource dataSource, final ObjectMapper objectMapper,
+                                @Value("${product.export.fetch-size:1000}") final int fetchSize,
+                                @Value("${product.export.flush-rows:1000}") final int flushRows) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.flushRows = flushRows;
+    }
+
+    public void exportProducts(final OutputStream outputStream, final ExportFormat format) throws IOException {
+        final long start = System.currentTimeMillis();
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            if (format == ExportFormat.JSON) {
+                generator.writeStartArray();
+            } else {
+                generator.setRootValueSeparator(null);
+            }
+
+            final RowWriter rowWriter = new RowWriter(generator, format);
+            try {
+                jdbcTemplate.execute((ConnectionCallback<Void>) connection -> streamRows(connection, rowWriter));
+            } catch (final UncheckedIOException e) {
+                throw e.getCause(); // most likely, the client went away
+            }
+
+            if (format == ExportFormat.JSON) {
+                generator.writeEndArray();
+            }
+
+            LOGGER.info("Exported {} products in {} ms", rowWriter.rows, System.currentTimeMillis() - start);
+        }
+    }
+
+    // the lazy execution is only switched on for the export's connection, and off again before it goes back to the pool
+    private Void streamRows(final Connection connection, final RowWriter rowWriter) throws SQLException {
+        setLazyQueryExecution(connection, true);
+        try (PreparedStatement preparedStatement = createForwardOnlyStatement(connection);
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            while (resultSet.next()) {
+                rowWriter.write(resultSet);
+            }
+        } finally {
+            setLazyQueryExecution(connection, false);
+        }
+        return null;
+    }
+
+    // H2 streams the rows of a lazily executed query, instead of materializing the whole result first
+    private static void setLazyQueryExecution(final Connection connection, final boolean lazy) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET LAZY_QUERY_EXECUTION " + (lazy ? "TRUE" : "FALSE"));
+        }
+    }
+
+    private PreparedStatement createForwardOnlyStatement(final Connection connection) throws SQLException {
+        final PreparedStatement preparedStatement = connection.prepareStatement(SELECT_PRODUCTS,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        preparedStatement.setFetchSize(fetchSize);
+        return preparedStatement;
+    }
+
+    private final class RowWriter {
+
+        private final JsonGenerator generator;
+        private final ExportFormat format;
+
+        private long rows;
+
+        private RowWriter(final JsonGenerator generator, final ExportFormat format) {
+            this.generator = generator;
+            this.format = format;
+        }
+
+        private void write(final ResultSet resultSet) throws SQLException {
+            try {
+                generator.writeStartObject();
+                generator.writeNumberField("id", resultSet.getLong(1));
+                generator.writeStringField("name", resultSet.getString(2));
+                generator.writeNumberField("price", resultSet.getDouble(3));
+                generator.writeEndObject();
+                if (format == ExportFormat.NDJSON) {
+                    generator.writeRaw('\n');
+                }
+
+                if (++rows % flushRows == 0) {
+                    generator.flush();
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package net.safedata.java.advanced.training.service.importer;
+
+import net.safedata.java.advanced.training.domain.model.ProductEntity;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses the 'id,name,price' lines of a (mapped) chunk directly from its bytes - the ids and the prices are decoded
+ * without any intermediate String; the name may be quoted, with the embedded quotes doubled. The lines whose name
+ * does not fit the table column are rejected, as they would fail the whole JDBC batch. Not thread-safe.
+ */
+final class CsvChunkParser {
+
+    @FunctionalInterface
+    interface RowConsumer {
+        void accept(long id, String name, double price);
+    }
+
+    private static final int PROGRESS_BYTES = 1 << 20;
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15};
+
+    private final ByteBuffer chunk;
+    private final ImportJob job;
+
+    private byte[] scratch = new byte[128];
+    private boolean malformed;
+
+    CsvChunkParser(final ByteBuffer chunk, final ImportJob job) {
+        this.chunk = chunk;
+        this.job = job;
+    }
+
+    void parse(final boolean skipHeader, final RowConsumer rowConsumer) {
+        final int limit = chunk.limit();
+
+        int position = 0;
+        if (skipHeader && limit > 0 && !isNumberStart(chunk.get(0))) {
+            position = Math.min(indexOf((byte) '\n', 0, limit) + 1, limit);
+        }
+
+        int reportedPosition = 0;
+        long rows = 0;
+        while (position < limit) {
+            final int lineEnd = indexOf((byte) '\n', position, limit);
+            int end = lineEnd;
+            if (end > position && chunk.get(end - 1) == '\r') {
+                end--;
+            }
+
+            if (end > position && parseLine(position, end, rowConsumer)) {
+                rows++;
+            }
+            position = lineEnd + 1;
+
+            if (position - reportedPosition >= PROGRESS_BYTES) {
+                job.parsed(position - reportedPosition, rows);
+                reportedPosition = position;
+                rows = 0;
+            }
+        }
+
+        job.parsed(limit - reportedPosition, rows);
+    }
+
+    private boolean parseLine(final int start, final int end, final RowConsumer rowConsumer) {
+        final int firstComma = indexOf((byte) ',', start, end);
+        final int lastComma = lastIndexOf((byte) ',', start, end);
+        if (firstComma == end || lastComma == firstComma) {
+            job.rejected();
+            return false;
+        }
+
+        malformed = false;
+        final long id = parseLong(start, firstComma);
+        final double price = parseDouble(lastComma + 1, end);
+        if (malformed) {
+            job.rejected();
+            return false;
+        }
+
+        final String name = decodeName(firstComma + 1, lastComma);
+        if (name.length() > ProductEntity.NAME_LENGTH) {
+            job.rejected();
+            return false;
+        }
+
+        rowConsumer.accept(id, name, price);
+        return true;
+    }
+
+    private long parseLong(final int start, final int end) {
+        int index = start;
+        final boolean negative = index < end && chunk.get(index) == '-';
+        if (negative) {
+            index++;
+        }
+        if (index == end || end - index > 18) {
+            malformed = true;
+            return 0;
+        }
+
+        long value = 0;
+        for (; index < end; index++) {
+            final int digit = chunk.get(index) - '0';
+            if (digit < 0 || digit > 9) {
+                malformed = true;
+                return 0;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    // plain decimals of up to 15 digits are exact as 'mantissa / 10^scale'; anything else goes to Double.parseDouble
+    private double parseDouble(final int start, final int end) {
+        int index = start;
+        final boolean negative = index < end && chunk.get(index) == '-';
+        if (negative || (index < end && chunk.get(index) == '+')) {
+            index++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        for (; index < end; index++) {
+            final byte current = chunk.get(index);
+            if (current >= '0' && current <= '9') {
+                if (++digits > MAX_EXACT_DIGITS) {
+                    return parseDoubleSlowly(start, end);
+                }
+                mantissa = mantissa * 10 + (current - '0');
+                if (fraction) {
+                    scale++;
+                }
+            } else if (current == '.' && !fraction) {
+                fraction = true;
+            } else {
+                return parseDoubleSlowly(start, end);
+            }
+        }
+
+        if (digits == 0) {
+            malformed = true;
+            return 0;
+        }
+
+        final double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private double parseDoubleSlowly(final int start, final int end) {
+        try {
+            return Double.parseDouble(decode(start, end).trim());
+        } catch (final NumberFormatException e) {
+            malformed = true;
+            return 0;
+        }
+    }
+
+    private String decodeName(final int start, final int end) {
+        if (end - start >= 2 && chunk.get(start) == '"' && chunk.get(end - 1) == '"') {
+            final String name = decode(start + 1, end - 1);
+            return name.indexOf('"') < 0 ? name : name.replace("\"\"", "\"");
+        }
+        return decode(start, end);
+    }
+
+    private String decode(final int start, final int end) {
+        final int length = end - start;
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        chunk.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private int indexOf(final byte value, final int from, final int to) {
+        for (int index = from; index < to; index++) {
+            if (chunk.get(index) == value) {
+                return index;
+            }
+        }
+        return to;
+    }
+
+    private int lastIndexOf(final byte value, final int from, final int to) {
+        for (int index = to - 1; index >= from; index--) {
+            if (chunk.get(index) == value) {
+                return index;
+            }
+        }
+        return to;
+    }
+
+    private static boolean isNumberStart(final byte value) {
+        return (value >= '0' && value <= '9') || value == '-';
+    }
+}
@@ -0,0 +1,85 @@
+package net.safedata.java.advanced.training.service.importer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The progress of a CSV import, updated concurrently by the parsing threads
+ */
+final class ImportJob {
+
+    private final long id;
+    private final String file;
+    private final long totalBytes;
+    private final long start = System.nanoTime();
+
+    private final LongAdder parsedBytes = new LongAdder();
+    private final LongAdder parsedRows = new LongAdder();
+    private final LongAdder insertedRows = new LongAdder();
+    private final LongAdder rejectedLines = new LongAdder();
+
+    private volatile ImportState state = ImportState.RUNNING;
+    private volatile boolean aborted;
+    private volatile String error;
+    private volatile long end;
+
+    ImportJob(final long id, final String file, final long totalBytes) {
+        this.id = id;
+        this.file = file;
+        this.totalBytes = totalBytes;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    void parsed(final long bytes, final long rows) {
+        parsedBytes.add(bytes);
+        parsedRows.add(rows);
+    }
+
+    void rejected() {
+        rejectedLines.increment();
+    }
+
+    // the committed rows
+    void inserted(final long rows) {
+        insertedRows.add(rows);
+    }
+
+    // the chunks still running stop at their next row, rolling back their uncommitted rows
+    void abort() {
+        aborted = true;
+    }
+
+    boolean isAborted() {
+        return aborted;
+    }
+
+    boolean isFinished() {
+        return state != ImportState.RUNNING;
+    }
+
+    void completed() {
+        end = System.nanoTime();
+        state = ImportState.COMPLETED;
+    }
+
+    void failed(final Throwable cause) {
+        end = System.nanoTime();
+        error = cause.getMessage();
+        state = insertedRows.sum() > 0 ? ImportState.PARTIALLY_IMPORTED : ImportState.FAILED;
+    }
+
+    ImportProgress toProgress() {
+        final ImportState currentState = state;
+        final long elapsedNanos = (currentState == ImportState.RUNNING ? System.nanoTime() : end) - start;
+        final long parsed = parsedBytes.sum();
+        final long rows = parsedRows.sum();
+
+        return new ImportProgress(id, file, currentState, totalBytes, parsed,
+                totalBytes == 0 ? 100 : 100.0 * parsed / totalBytes, rows, insertedRows.sum(), rejectedLines.sum(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                elapsedNanos == 0 ? 0 : rows * TimeUnit.SECONDS.toNanos(1) / elapsedNanos, error);
+    }
+}
@@ -0,0 +1,6 @@
+package net.safedata.java.advanced.training.service.importer;
+
+public record ImportProgress(long id, String file, ImportState state, long totalBytes, long parsedBytes,
+                             double percentage, long parsedRows, long insertedRows, long rejectedLines,
+                             long elapsedMillis, long rowsPerSecond, String error) {
+}
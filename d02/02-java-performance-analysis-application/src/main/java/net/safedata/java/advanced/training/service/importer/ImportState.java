@@ -0,0 +1,10 @@
+package net.safedata.java.advanced.training.service.importer;
+
+public enum ImportState {
+    RUNNING,
+    COMPLETED,
+    // nothing of the file was left in the table
+    FAILED,
+    // failed after some chunks / batches were committed - the inserted rows are in the table, the others are not
+    PARTIALLY_IMPORTED
+}
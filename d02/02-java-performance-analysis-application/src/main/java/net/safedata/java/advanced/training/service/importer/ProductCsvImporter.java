@@ -0,0 +1,225 @@
+package net.safedata.java.advanced.training.service.importer;
+
+import jakarta.annotation.PreDestroy;
+import net.safedata.java.advanced.training.service.bulk.BulkInsertSession;
+import net.safedata.java.advanced.training.service.bulk.ProductBulkInserter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imports 'id,name,price' CSV files - the file is memory-mapped in line-aligned chunks, which are parsed in parallel,
+ * each parsing thread writing its rows through its own bulk insert session. The ids of the file are only validated,
+ * the inserted rows get ids from the product sequence, so they never collide with the ones allocated later. The
+ * chunks commit independently - the first failing chunk aborts the others, and a job which has failed after some
+ * commits is reported as partially imported, with its inserted (committed) rows. Only the most recent finished jobs
+ * are kept for the progress queries.
+ */
+@Service
+public class ProductCsvImporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductCsvImporter.class);
+
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+    private static final long MAX_CHUNK_SIZE = 1 << 30;
+    private static final int LINE_SEARCH_BUFFER = 8192;
+
+    private final ProductBulkInserter productBulkInserter;
+    private final Path importDirectory;
+    private final int parsingThreads;
+    private final int retainedJobs;
+    private final ExecutorService parsers;
+
+    private final AtomicLong jobIds = new AtomicLong();
+    // ordered by id, so the oldest finished jobs are pruned first
+    private final Map<Long, ImportJob> jobs = new ConcurrentSkipListMap<>();
+
+    public ProductCsvImporter(final ProductBulkInserter productBulkInserter,
+                              @Value("${product.import.directory:imports}") final String importDirectory,
+                              @Value("${product.import.threads:0}") final int parsingThreads,
+                              @Value("${product.import.retained-jobs:100}") final int retainedJobs) {
+        this.productBulkInserter = productBulkInserter;
+        this.importDirectory = Paths.get(importDirectory).toAbsolutePath().normalize();
+        this.parsingThreads = parsingThreads > 0 ? parsingThreads : Runtime.getRuntime().availableProcessors();
+        this.retainedJobs = retainedJobs;
+        this.parsers = Executors.newFixedThreadPool(this.parsingThreads, Thread.ofPlatform()
+                                                                                 .name("csv-parser-", 0)
+                                                                                 .factory());
+    }
+
+    public ImportProgress startImport(final String fileName) {
+        final Path file = importDirectory.resolve(fileName).normalize();
+        if (!file.startsWith(importDirectory) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("There is no '" + fileName + "' file in the import directory");
+        }
+
+        final ImportJob job;
+        try {
+            job = new ImportJob(jobIds.incrementAndGet(), fileName, Files.size(file));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        jobs.put(job.getId(), job);
+
+        Thread.ofVirtual()
+              .name("csv-import-" + fileName)
+              .start(() -> {
+                  try {
+                      runImport(file, job);
+                  } finally {
+                      pruneFinishedJobs();
+                  }
+              });
+
+        return job.toProgress();
+    }
+
+    public Optional<ImportProgress> getProgress(final long id) {
+        return Optional.ofNullable(jobs.get(id))
+                       .map(ImportJob::toProgress);
+    }
+
+    public List<ImportProgress> getAllProgress() {
+        return jobs.values()
+                   .stream()
+                   .map(ImportJob::toProgress)
+                   .toList();
+    }
+
+    private void runImport(final Path file, final ImportJob job) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final List<long[]> chunks = splitInLineAlignedChunks(channel);
+
+            final List<Future<?>> parsings = new ArrayList<>(chunks.size());
+            for (int index = 0; index < chunks.size(); index++) {
+                final long[] chunk = chunks.get(index);
+                final boolean firstChunk = index == 0;
+                parsings.add(parsers.submit(() -> importChunk(channel, chunk[0], chunk[1], firstChunk, job)));
+            }
+
+            // all the chunks are awaited, so the inserted rows are final when the job ends
+            Throwable failure = null;
+            for (Future<?> parsing : parsings) {
+                try {
+                    parsing.get();
+                } catch (final ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                        job.abort();
+                    }
+                }
+            }
+
+            if (failure != null) {
+                fail(file, job, failure);
+                return;
+            }
+            job.completed();
+            LOGGER.info("Imported '{}': {}", file.getFileName(), job.toProgress());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(file, job, e);
+        } catch (final IOException | RuntimeException e) {
+            fail(file, job, e);
+        }
+    }
+
+    private void importChunk(final FileChannel channel, final long start, final long end, final boolean firstChunk,
+                             final ImportJob job) {
+        final BulkInsertSession session = productBulkInserter.openSession();
+        try (session) {
+            final MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            new CsvChunkParser(chunk, job).parse(firstChunk, (id, name, price) -> {
+                if (job.isAborted()) {
+                    throw new CancellationException("The import was aborted by the failure of another chunk");
+                }
+                session.add(name, price);
+            });
+            session.finish();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            // a failed chunk keeps the rows committed before its failure
+            job.inserted(session.getCommittedRows());
+        }
+    }
+
+    private List<long[]> splitInLineAlignedChunks(final FileChannel channel) throws IOException {
+        final long size = channel.size();
+        final long chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, size / parsingThreads + 1));
+
+        final List<long[]> chunks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            final long end = start + chunkSize >= size ? size : nextLineStart(channel, start + chunkSize);
+            chunks.add(new long[] {start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    static long nextLineStart(final FileChannel channel, final long from) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(LINE_SEARCH_BUFFER);
+
+        long position = from;
+        int read;
+        while ((read = channel.read(buffer.clear(), position)) > 0) {
+            for (int index = 0; index < read; index++) {
+                if (buffer.get(index) == '\n') {
+                    return position + index + 1;
+                }
+            }
+            position += read;
+        }
+        return channel.size();
+    }
+
+    // the running jobs are always kept
+    private synchronized void pruneFinishedJobs() {
+        long finishedJobs = jobs.values()
+                                .stream()
+                                .filter(ImportJob::isFinished)
+                                .count();
+
+        final Iterator<ImportJob> iterator = jobs.values().iterator();
+        while (finishedJobs > retainedJobs && iterator.hasNext()) {
+            if (iterator.next().isFinished()) {
+                iterator.remove();
+                finishedJobs--;
+            }
+        }
+    }
+
+    private static void fail(final Path file, final ImportJob job, final Throwable cause) {
+        job.failed(cause);
+        LOGGER.error("The import of '{}' has failed", file.getFileName(), cause);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parsers.shutdownNow();
+    }
+}
@@ -0,0 +1,64 @@
+package net.safedata.java.advanced.training.service.paging;
+
+import net.safedata.java.advanced.training.errorhandling.ValidationException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * The opaque (base64url) position of a keyset scroll - the last returned id and the price filters of the first request
+ */
+record ContinuationToken(long lastId, Double minPrice, Double maxPrice) {
+
+    private static final byte VERSION = 1;
+    private static final int HAS_MIN_PRICE = 1;
+    private static final int HAS_MAX_PRICE = 2;
+
+    String encode() {
+        final ByteBuffer buffer = ByteBuffer.allocate(2 + Long.BYTES + 2 * Double.BYTES);
+        buffer.put(VERSION)
+              .put((byte) ((minPrice != null ? HAS_MIN_PRICE : 0) | (maxPrice != null ? HAS_MAX_PRICE : 0)))
+              .putLong(lastId);
+        if (minPrice != null) {
+            buffer.putDouble(minPrice);
+        }
+        if (maxPrice != null) {
+            buffer.putDouble(maxPrice);
+        }
+
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(Arrays.copyOf(buffer.array(), buffer.position()));
+    }
+
+    static ContinuationToken decode(final String token) {
+        try {
+            final ByteBuffer buffer = ByteBuffer.wrap(decodeBase64(token));
+            if (buffer.get() != VERSION) {
+                throw new ValidationException("Unsupported continuation token");
+            }
+
+            final int flags = buffer.get();
+            final long lastId = buffer.getLong();
+            final Double minPrice = (flags & HAS_MIN_PRICE) != 0 ? buffer.getDouble() : null;
+            final Double maxPrice = (flags & HAS_MAX_PRICE) != 0 ? buffer.getDouble() : null;
+            if (buffer.hasRemaining()) {
+                throw new ValidationException("Invalid continuation token");
+            }
+
+            return new ContinuationToken(lastId, minPrice, maxPrice);
+        } catch (final BufferUnderflowException e) {
+            throw new ValidationException("Invalid continuation token");
+        }
+    }
+
+    private static byte[] decodeBase64(final String token) {
+        try {
+            return Base64.getUrlDecoder().decode(token);
+        } catch (final IllegalArgumentException e) {
+            throw new ValidationException("Invalid continuation token");
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package net.safedata.java.advanced.training.service.paging;
+
+import net.safedata.java.advanced.training.domain.model.ProductEntity;
+
+import java.util.List;
+
+/**
+ * A page of products; the next page is requested by passing back the continuation token, which is null on the last page
+ */
+public record ProductPage(List<ProductEntity> products, String continuationToken) {
+}
@@ -0,0 +1,69 @@
+package net.safedata.java.advanced.training.service.paging;
+
+import net.safedata.java.advanced.training.domain.model.ProductEntity;
+import net.safedata.java.advanced.training.errorhandling.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keyset (seek) pagination over the product ids - every page is an index range scan starting right after the last
+ * returned id, so its cost does not depend on how deep the client has walked in the catalog.
+ */
+@Service
+public class ProductPagingService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public ProductPagingService(final DataSource dataSource,
+                                @Value("${product.paging.default-size:100}") final int defaultPageSize,
+                                @Value("${product.paging.max-size:1000}") final int maxPageSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    public ProductPage getPage(final Integer size, final String continuationToken, final Double minPrice,
+                               final Double maxPrice) {
+        final int pageSize = size == null ? defaultPageSize : size;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new ValidationException("The page size should be between 1 and " + maxPageSize);
+        }
+
+        // the filters of a continued scroll are the ones of its first page
+        final ContinuationToken position = continuationToken == null
+                ? new ContinuationToken(Long.MIN_VALUE, minPrice, maxPrice)
+                : ContinuationToken.decode(continuationToken);
+
+        final StringBuilder sql = new StringBuilder("SELECT id, name, price FROM product WHERE id > ?");
+        final List<Object> parameters = new ArrayList<>(4);
+        parameters.add(position.lastId());
+        if (position.minPrice() != null) {
+            sql.append(" AND price >= ?");
+            parameters.add(position.minPrice());
+        }
+        if (position.maxPrice() != null) {
+            sql.append(" AND price <= ?");
+            parameters.add(position.maxPrice());
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        parameters.add(pageSize + 1); // the extra row tells if there is a next page
+
+        final List<ProductEntity> products = jdbcTemplate.query(sql.toString(), (rs, row) ->
+                new ProductEntity(rs.getLong("id"), rs.getString("name"), rs.getDouble("price")), parameters.toArray());
+
+        if (products.size() <= pageSize) {
+            return new ProductPage(products, null);
+        }
+
+        final List<ProductEntity> page = products.subList(0, pageSize);
+        final long lastId = page.get(pageSize - 1).getId();
+        return new ProductPage(page, new ContinuationToken(lastId, position.minPrice(), position.maxPrice()).encode());
+    }
+}
@@ -0,0 +1,7 @@
+package net.safedata.java.advanced.training.service.sales;
+
+/**
+ * The conflated changes are the ledger changes merged into an already pending broadcast
+ */
+public record BroadcastStats(int subscribers, long broadcasts, long sent, long conflated, long failures) {
+}
@@ -0,0 +1,190 @@
+package net.safedata.java.advanced.training.service.sales;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pushes the sales snapshots to the SSE subscribers from a single virtual thread, which wakes up on the ledger changes
+ * (at most once per min interval) and sends the latest snapshot to every subscriber, inline. The changes which happen
+ * while it waits or sends are conflated into its next broadcast, so a slow subscriber delays the next snapshot
+ * instead of growing a queue - and it gets the latest snapshot, not the ones it has missed.
+ */
+@Component
+public class SalesBroadcaster {
+
+    private static final String EVENT_NAME = "sales";
+    // a send blocked on a stalled client does not hold the shutdown back
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(1);
+
+    interface SnapshotSink {
+        void send(SalesSnapshot snapshot) throws IOException;
+
+        void complete();
+
+        void fail(Throwable error);
+    }
+
+    private final SalesLedger salesLedger;
+    private final Duration streamTimeout;
+    private final long minIntervalNanos;
+
+    private final Set<SnapshotSink> subscriptions = ConcurrentHashMap.newKeySet();
+    // they get the current snapshot from the broadcaster, so it is never sent after a newer one
+    private final Queue<SnapshotSink> newSubscriptions = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean changed = new AtomicBoolean();
+    private volatile Thread broadcaster;
+    private volatile boolean running;
+
+    private final LongAdder broadcasts = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder conflated = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public SalesBroadcaster(final SalesLedger salesLedger,
+                            @Value("${product.sales.stream.timeout:30m}") final Duration streamTimeout,
+                            @Value("${product.sales.stream.min-interval:250ms}") final Duration minInterval) {
+        this.salesLedger = salesLedger;
+        this.streamTimeout = streamTimeout;
+        this.minIntervalNanos = minInterval.toNanos();
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        broadcaster = Thread.ofVirtual()
+                            .name("sales-broadcaster")
+                            .start(this::broadcast);
+        salesLedger.addListener(this::salesChanged);
+    }
+
+    // the current snapshot is sent first, the following ones on the changes
+    public SseEmitter subscribe() {
+        final SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        final SnapshotSink subscription = new EmitterSink(emitter);
+
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> unsubscribe(subscription));
+
+        subscribe(subscription);
+        return emitter;
+    }
+
+    void subscribe(final SnapshotSink subscription) {
+        newSubscriptions.add(subscription);
+        LockSupport.unpark(broadcaster);
+    }
+
+    public BroadcastStats getStats() {
+        return new BroadcastStats(subscriptions.size() + newSubscriptions.size(), broadcasts.sum(), sent.sum(),
+                conflated.sum(), failures.sum());
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        final Thread thread = broadcaster;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(STOP_TIMEOUT);
+        }
+
+        SnapshotSink subscription;
+        while ((subscription = newSubscriptions.poll()) != null) {
+            subscriptions.add(subscription);
+        }
+        subscriptions.forEach(SnapshotSink::complete);
+        subscriptions.clear();
+    }
+
+    private void unsubscribe(final SnapshotSink subscription) {
+        subscriptions.remove(subscription);
+        newSubscriptions.remove(subscription);
+    }
+
+    // called on every sale, so only the first change of a broadcast writes the flag and wakes the broadcaster up
+    private void salesChanged() {
+        if (changed.get() || !changed.compareAndSet(false, true)) {
+            conflated.increment();
+            return;
+        }
+        LockSupport.unpark(broadcaster);
+    }
+
+    private void broadcast() {
+        while (running) {
+            // a change which happened before parking is not missed, and a spurious wake-up parks again
+            while (running && !changed.get() && newSubscriptions.isEmpty()) {
+                LockSupport.park(this);
+            }
+            if (!running) {
+                return;
+            }
+
+            SnapshotSink subscription;
+            while ((subscription = newSubscriptions.poll()) != null) {
+                subscriptions.add(subscription);
+                send(subscription, salesLedger.getSnapshot());
+            }
+            if (!changed.getAndSet(false)) {
+                continue;
+            }
+
+            final SalesSnapshot snapshot = salesLedger.getSnapshot();
+            subscriptions.forEach(current -> send(current, snapshot));
+            broadcasts.increment();
+
+            // the changes which happen meanwhile are picked up by the next broadcast - their unparks do not shorten
+            // the interval, as it is waited for against a deadline
+            final long deadline = System.nanoTime() + minIntervalNanos;
+            long remaining;
+            while (running && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+        }
+    }
+
+    private void send(final SnapshotSink subscription, final SalesSnapshot snapshot) {
+        try {
+            subscription.send(snapshot);
+            sent.increment();
+        } catch (final IOException | RuntimeException e) {
+            failures.increment();
+            unsubscribe(subscription);
+            subscription.fail(e);
+        }
+    }
+
+    private record EmitterSink(SseEmitter emitter) implements SnapshotSink {
+        @Override
+        public void send(final SalesSnapshot snapshot) throws IOException {
+            emitter.send(SseEmitter.event()
+                                   .name(EVENT_NAME)
+                                   .id(String.valueOf(snapshot.updates()))
+                                   .data(snapshot));
+        }
+
+        @Override
+        public void complete() {
+            emitter.complete();
+        }
+
+        @Override
+        public void fail(final Throwable error) {
+            emitter.completeWithError(error);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package net.safedata.java.advanced.training.service.sales;
+
+import net.safedata.java.advanced.training.service.aggregation.CompensatedSum;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Striped sales accumulator - every writer thread is mapped to a stripe, holding an immutable cell with the
+ * compensated total, the updates count and the last minute / last hour buckets, which is replaced by a single CAS.
+ * No writer ever blocks: one which loses a CAS moves to another stripe, so the colliding threads spread out. A reader
+ * takes no lock and never retries - it reads one cell per stripe, so every recorded sale is either fully in or fully
+ * out of a snapshot. The number of updates is the version of the ledger - the listeners are notified after every
+ * update, on the recording thread.
+ */
+@Component
+public class SalesLedger {
+
+    private static final long SECOND = TimeUnit.SECONDS.toMillis(1);
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final int WINDOW_BUCKETS = 60;
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    // the stripe of every thread, moved after a lost CAS
+    private final ThreadLocal<int[]> probes = ThreadLocal.withInitial(() -> new int[] {initialProbe()});
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    public SalesLedger() {
+        int stripesCount = 1;
+        while (stripesCount < Runtime.getRuntime().availableProcessors() * 2) {
+            stripesCount <<= 1;
+        }
+
+        this.stripes = new Stripe[stripesCount];
+        this.mask = stripesCount - 1;
+
+        for (int index = 0; index < stripesCount; index++) {
+            stripes[index] = new Stripe();
+        }
+    }
+
+    public void record(final double value) {
+        final long now = System.currentTimeMillis();
+
+        final int[] probe = probes.get();
+        while (true) {
+            final AtomicReference<Cell> cell = stripes[probe[0] & mask].cell;
+            final Cell current = cell.get();
+            if (cell.compareAndSet(current, current.add(now, value))) {
+                break;
+            }
+            probe[0] = advanceProbe(probe[0]);
+        }
+
+        listeners.forEach(Runnable::run);
+    }
+
+    // the listeners should be quick, as they delay the recording thread
+    public void addListener(final Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public long getVersion() {
+        long updates = 0;
+        for (Stripe stripe : stripes) {
+            updates += stripe.cell.get().updates;
+        }
+        return updates;
+    }
+
+    public double getTotal() {
+        CompensatedSum total = CompensatedSum.ZERO;
+        for (Stripe stripe : stripes) {
+            total = total.add(stripe.cell.get().total);
+        }
+        return total.value();
+    }
+
+    public SalesSnapshot getSnapshot() {
+        final long now = System.currentTimeMillis();
+        final long oldestSecond = now / SECOND - WINDOW_BUCKETS + 1;
+        final long oldestMinute = now / MINUTE - WINDOW_BUCKETS + 1;
+
+        CompensatedSum total = CompensatedSum.ZERO;
+        CompensatedSum lastMinute = CompensatedSum.ZERO;
+        CompensatedSum lastHour = CompensatedSum.ZERO;
+        long updates = 0;
+        for (Stripe stripe : stripes) {
+            final Cell cell = stripe.cell.get();
+            total = total.add(cell.total);
+            lastMinute = lastMinute.add(Bucket.sum(cell.lastMinute, oldestSecond));
+            lastHour = lastHour.add(Bucket.sum(cell.lastHour, oldestMinute));
+            updates += cell.updates;
+        }
+
+        return new SalesSnapshot(total.value(), lastMinute.value(), lastHour.value(), updates, now);
+    }
+
+    private static int initialProbe() {
+        final int probe = (int) ((Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L) >>> 32);
+        return probe == 0 ? 1 : probe;
+    }
+
+    // xorshift, as the stripes of the striped JDK adders
+    private static int advanceProbe(int probe) {
+        probe ^= probe << 13;
+        probe ^= probe >>> 17;
+        probe ^= probe << 5;
+        return probe;
+    }
+
+    private static final class Stripe {
+        private final AtomicReference<Cell> cell = new AtomicReference<>(Cell.EMPTY);
+    }
+
+    // immutable, so a sale is published on all the totals of the stripe at once
+    private record Cell(CompensatedSum total, long updates, Bucket lastMinute, Bucket lastHour) {
+
+        private static final Cell EMPTY = new Cell(CompensatedSum.ZERO, 0, null, null);
+
+        private Cell add(final long now, final double value) {
+            return new Cell(total.add(value), updates + 1, Bucket.add(lastMinute, now / SECOND, value),
+                    Bucket.add(lastHour, now / MINUTE, value));
+        }
+    }
+
+    // the newest bucket of a window, linked to the older ones; the buckets out of the window are unlinked whenever
+    // a new bucket is started, so a window never holds more than WINDOW_BUCKETS of them
+    private record Bucket(long epoch, CompensatedSum sum, Bucket older) {
+
+        private static Bucket add(final Bucket newest, final long epoch, final double value) {
+            // a writer with a slightly late clock adds to the newest bucket
+            if (newest != null && newest.epoch >= epoch) {
+                return new Bucket(newest.epoch, newest.sum.add(value), newest.older);
+            }
+            return new Bucket(epoch, CompensatedSum.ZERO.add(value), retain(newest, epoch - WINDOW_BUCKETS + 1));
+        }
+
+        private static CompensatedSum sum(final Bucket newest, final long oldestEpoch) {
+            CompensatedSum sum = CompensatedSum.ZERO;
+            for (Bucket bucket = newest; bucket != null && bucket.epoch >= oldestEpoch; bucket = bucket.older) {
+                sum = sum.add(bucket.sum);
+            }
+            return sum;
+        }
+
+        // the buckets are shared between the cells, so only the ones in the window are copied, when some are out
+        private static Bucket retain(final Bucket newest, final long oldestEpoch) {
+            Bucket oldest = newest;
+            while (oldest != null && oldest.epoch >= oldestEpoch) {
+                oldest = oldest.older;
+            }
+            return oldest == null ? newest : copyWithin(newest, oldestEpoch);
+        }
+
+        private static Bucket copyWithin(final Bucket bucket, final long oldestEpoch) {
+            return bucket == null || bucket.epoch < oldestEpoch
+                    ? null
+                    : new Bucket(bucket.epoch, bucket.sum, copyWithin(bucket.older, oldestEpoch));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package net.safedata.java.advanced.training.service.sales;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * The pending long-poll requests for the sales changes - a waiting client is only a registered callback, holding no
+ * thread; the callbacks are completed by the ledger updates, each one exactly once
+ */
+@Component
+public class SalesLongPollRegistry {
+
+    private final SalesLedger salesLedger;
+    private final Duration timeout;
+
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+
+    public SalesLongPollRegistry(final SalesLedger salesLedger,
+                                 @Value("${product.sales.long-poll-timeout:30s}") final Duration timeout) {
+        this.salesLedger = salesLedger;
+        this.timeout = timeout;
+
+        salesLedger.addListener(this::salesChanged);
+    }
+
+    /**
+     * Registers a callback for the first ledger version newer than the known one - it is completed right away if
+     * there already is one. The returned action cancels the registration (e.g. on timeout).
+     */
+    public Runnable register(final long knownVersion, final Consumer<SalesSnapshot> callback) {
+        final Waiter waiter = new Waiter(knownVersion, callback);
+        waiters.add(waiter);
+
+        // checked after the registration, so an update recorded in between cannot be missed
+        if (salesLedger.getVersion() > knownVersion) {
+            complete(waiter, salesLedger.getSnapshot());
+        }
+        return () -> waiters.remove(waiter);
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public int getPendingCount() {
+        return waiters.size();
+    }
+
+    private void salesChanged() {
+        if (waiters.isEmpty()) {
+            return;
+        }
+
+        final SalesSnapshot snapshot = salesLedger.getSnapshot();
+        for (final Waiter waiter : waiters) {
+            if (snapshot.updates() > waiter.knownVersion) {
+                complete(waiter, snapshot);
+            }
+        }
+    }
+
+    // only the thread which removes the waiter completes it
+    private void complete(final Waiter waiter, final SalesSnapshot snapshot) {
+        if (waiters.remove(waiter)) {
+            waiter.callback.accept(snapshot);
+        }
+    }
+
+    // the identity matters, not the state
+    private static final class Waiter {
+        private final long knownVersion;
+        private final Consumer<SalesSnapshot> callback;
+
+        private Waiter(final long knownVersion, final Consumer<SalesSnapshot> callback) {
+            this.knownVersion = knownVersion;
+            this.callback = callback;
+        }
+    }
+}
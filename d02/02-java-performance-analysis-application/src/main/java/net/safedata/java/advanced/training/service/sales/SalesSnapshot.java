@@ -0,0 +1,4 @@
+package net.safedata.java.advanced.training.service.sales;
+
+public record SalesSnapshot(double total, double lastMinute, double lastHour, long updates, long takenAt) {
+}
@@ -0,0 +1,48 @@
+package net.safedata.java.advanced.training.service.store;
+
+import net.safedata.java.advanced.training.model.Product;
+import net.safedata.java.advanced.training.service.aggregation.PriceSummation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * The original storage - every product is kept on the heap, forever
+ */
+public class HeapProductStore implements ProductStore {
+
+    // kept in memory to show the case of a continuously growing memory
+    private final List<Product> products = new ArrayList<>();
+
+    private final PriceSummation priceSummation;
+
+    public HeapProductStore(final PriceSummation priceSummation) {
+        this.priceSummation = priceSummation;
+    }
+
+    @Override
+    public synchronized void add(final Product product) {
+        products.add(product);
+    }
+
+    @Override
+    public synchronized int size() {
+        return products.size();
+    }
+
+    @Override
+    public synchronized double sumPrices() {
+        final double[] prices = products.stream()
+                                        .filter(Objects::nonNull)
+                                        .mapToDouble(Product::getPrice)
+                                        .toArray();
+        return priceSummation.sum(prices);
+    }
+
+    @Override
+    public synchronized void forEach(final Consumer<Product> consumer) {
+        products.forEach(consumer);
+    }
+}
@@ -0,0 +1,69 @@
+package net.safedata.java.advanced.training.service.store;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reference counted dictionary encoding of the product names; a code is recycled once no stored product uses it.
+ * Not thread-safe - the owning store guards the access.
+ */
+final class NameDictionary {
+
+    static final int NO_NAME = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final Deque<Integer> freeCodes = new ArrayDeque<>();
+
+    private int[] references = new int[64];
+
+    int encode(final String name) {
+        if (name == null) {
+            return NO_NAME;
+        }
+
+        Integer code = codes.get(name);
+        if (code == null) {
+            code = freeCodes.isEmpty() ? newCode() : freeCodes.pop();
+            names.set(code, name);
+            codes.put(name, code);
+        }
+
+        references[code]++;
+        return code;
+    }
+
+    String decode(final int code) {
+        return code == NO_NAME ? null : names.get(code);
+    }
+
+    void release(final int code) {
+        if (code == NO_NAME) {
+            return;
+        }
+
+        if (--references[code] == 0) {
+            codes.remove(names.get(code));
+            names.set(code, null);
+            freeCodes.push(code);
+        }
+    }
+
+    int size() {
+        return codes.size();
+    }
+
+    private int newCode() {
+        final int code = names.size();
+        names.add(null);
+        if (code == references.length) {
+            references = Arrays.copyOf(references, references.length * 2);
+        }
+        return code;
+    }
+}
@@ -0,0 +1,199 @@
+package net.safedata.java.advanced.training.service.store;
+
+import net.safedata.java.advanced.training.model.Product;
+import net.safedata.java.advanced.training.service.aggregation.CompensatedSum;
+import net.safedata.java.advanced.training.service.aggregation.PriceSummation;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded columnar storage - the ids, prices, name codes and insertion times are kept in direct (off-heap) buffers,
+ * used as a ring, while the names are dictionary encoded. The oldest products are evicted when the capacity is
+ * reached or when they get older than the configured max age. Discounts are not retained.
+ */
+public class OffHeapProductStore implements ProductStore {
+
+    // the widest column (the prices / the timestamps) must fit in a single direct buffer
+    static final int MAX_CAPACITY = Integer.MAX_VALUE / Long.BYTES;
+
+    private final int capacity;
+    private final long maxAgeMillis;
+    private final Clock clock;
+    private final PriceSummation priceSummation;
+
+    private final IntBuffer ids;
+    private final DoubleBuffer prices;
+    private final IntBuffer nameCodes;
+    private final LongBuffer timestamps;
+
+    private final NameDictionary names = new NameDictionary();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // the slot of the oldest product
+    private int head;
+    private int size;
+
+    public OffHeapProductStore(final int capacity, final Duration maxAge, final PriceSummation priceSummation) {
+        this(capacity, maxAge, priceSummation, Clock.systemUTC());
+    }
+
+    OffHeapProductStore(final int capacity, final Duration maxAge, final PriceSummation priceSummation,
+                        final Clock clock) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("The capacity must be between 1 and " + MAX_CAPACITY);
+        }
+
+        this.capacity = capacity;
+        this.maxAgeMillis = maxAge == null ? 0 : maxAge.toMillis();
+        this.clock = clock;
+        this.priceSummation = priceSummation;
+
+        this.ids = allocate(capacity, Integer.BYTES).asIntBuffer();
+        this.prices = allocate(capacity, Double.BYTES).asDoubleBuffer();
+        this.nameCodes = allocate(capacity, Integer.BYTES).asIntBuffer();
+        this.timestamps = allocate(capacity, Long.BYTES).asLongBuffer();
+    }
+
+    private static ByteBuffer allocate(final int capacity, final int bytesPerValue) {
+        return ByteBuffer.allocateDirect(Math.multiplyExact(capacity, bytesPerValue))
+                         .order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public void add(final Product product) {
+        lock.writeLock().lock();
+        try {
+            final long now = clock.millis();
+            evictExpired(now);
+            if (size == capacity) {
+                evictOldest();
+            }
+
+            final int slot = slot(size);
+            ids.put(slot, product.getId());
+            prices.put(slot, product.getPrice());
+            nameCodes.put(slot, names.encode(product.getName()));
+            timestamps.put(slot, now);
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        evictExpired();
+
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public double sumPrices() {
+        evictExpired();
+
+        lock.readLock().lock();
+        try {
+            // the ring is summed as (at most) two contiguous segments
+            final int firstSegmentEnd = Math.min(head + size, capacity);
+            final CompensatedSum firstSegment = priceSummation.sum(prices, head, firstSegmentEnd);
+            final CompensatedSum secondSegment = priceSummation.sum(prices, 0, size - (firstSegmentEnd - head));
+
+            return firstSegment.add(secondSegment).value();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEach(final Consumer<Product> consumer) {
+        evictExpired();
+
+        lock.readLock().lock();
+        try {
+            for (int index = 0; index < size; index++) {
+                final int slot = slot(index);
+                consumer.accept(new Product(ids.get(slot), names.decode(nameCodes.get(slot)), prices.get(slot)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getDistinctNames() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // the readers only take the write lock when the oldest product has actually expired
+    private void evictExpired() {
+        if (maxAgeMillis <= 0) {
+            return;
+        }
+
+        final long now = clock.millis();
+        lock.readLock().lock();
+        try {
+            if (!isOldestExpired(now)) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            evictExpired(now);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // the products are appended in time order, so the expired ones are always at the head of the ring
+    private void evictExpired(final long now) {
+        if (maxAgeMillis <= 0) {
+            return;
+        }
+
+        while (isOldestExpired(now)) {
+            evictOldest();
+        }
+    }
+
+    private boolean isOldestExpired(final long now) {
+        return size > 0 && timestamps.get(head) < now - maxAgeMillis;
+    }
+
+    private void evictOldest() {
+        names.release(nameCodes.get(head));
+        head = (head + 1) % capacity;
+        size--;
+    }
+
+    private int slot(final int index) {
+        final int slot = head + index;
+        return slot < capacity ? slot : slot - capacity;
+    }
+}
@@ -0,0 +1,23 @@
+package net.safedata.java.advanced.training.service.store;
+
+import net.safedata.java.advanced.training.model.Product;
+
+import java.util.function.Consumer;
+
+/**
+ * Storage for the products generated by the scheduled processing
+ */
+public interface ProductStore {
+
+    void add(Product product);
+
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    double sumPrices();
+
+    void forEach(Consumer<Product> consumer);
+}
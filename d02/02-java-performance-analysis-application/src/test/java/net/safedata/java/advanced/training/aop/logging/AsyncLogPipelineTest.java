@@ -0,0 +1,165 @@
+package net.safedata.java.advanced.training.aop.logging;
+
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncLogPipelineTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private AsyncLogPipeline pipeline;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        pipeline.close();
+    }
+
+    @Test
+    @DisplayName("Given a stalled writer and the drop policy, when the buffer is full then the overflow is dropped")
+    void givenAStalledWriterAndTheDropPolicy_whenTheBufferIsFull_thenTheOverflowIsDropped() {
+        pipeline = new AsyncLogPipeline(2, OverflowPolicy.DROP, 16);
+        stallTheWriter();
+
+        for (int index = 0; index < 4; index++) {
+            pipeline.publish(LogEventType.ENTRY, new StubSignature(), new Object[] {index}, null, null);
+        }
+
+        // the stalled event still holds its slot, so only one more event fits
+        LoggingStats stats = pipeline.getStats();
+        assertEquals(2, stats.published());
+        assertEquals(3, stats.dropped());
+        assertEquals(0, stats.blockedPublishes());
+
+        release.countDown();
+        awaitUntil(() -> pipeline.getStats().written() == 2);
+        stats = pipeline.getStats();
+        assertEquals(0, stats.queued());
+        assertEquals(3, stats.dropped());
+    }
+
+    @Test
+    @DisplayName("Given a stalled writer and the block policy, when the buffer is full then the publishers wait")
+    void givenAStalledWriterAndTheBlockPolicy_whenTheBufferIsFull_thenThePublishersWait() throws InterruptedException {
+        pipeline = new AsyncLogPipeline(2, OverflowPolicy.BLOCK, 16);
+        stallTheWriter();
+
+        final Thread publisher = Thread.ofPlatform().start(() -> {
+            for (int index = 0; index < 10; index++) {
+                pipeline.publish(LogEventType.EXIT, new StubSignature(), null, index, null);
+            }
+        });
+
+        awaitUntil(() -> pipeline.getStats().blockedPublishes() > 0);
+        assertTrue(publisher.isAlive());
+
+        release.countDown();
+        publisher.join(TIMEOUT.toMillis());
+        awaitUntil(() -> pipeline.getStats().written() == 11);
+
+        final LoggingStats stats = pipeline.getStats();
+        assertEquals(11, stats.published());
+        assertEquals(0, stats.dropped());
+    }
+
+    @Test
+    @DisplayName("Given published events, when closing the pipeline then they are all written before it stops")
+    void givenPublishedEvents_whenClosingThePipeline_thenTheyAreAllWritten() throws InterruptedException {
+        pipeline = new AsyncLogPipeline(16, OverflowPolicy.DROP, 4);
+        stallTheWriter();
+        for (int index = 0; index < 10; index++) {
+            pipeline.publish(LogEventType.ENTRY, new StubSignature(), new Object[] {index}, null, null);
+        }
+
+        final Thread closer = Thread.ofPlatform().start(() -> {
+            try {
+                pipeline.close();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        // the pipeline is stopped while its events are still queued
+        awaitUntil(() -> closer.getState() == Thread.State.TIMED_WAITING);
+        assertEquals(11, pipeline.getStats().queued());
+
+        release.countDown();
+        closer.join(TIMEOUT.toMillis());
+
+        final LoggingStats stats = pipeline.getStats();
+        assertEquals(11, stats.written());
+        assertEquals(0, stats.queued());
+        assertEquals(0, stats.renderingFailures());
+    }
+
+    // the writer blocks while rendering the first event, which keeps its slot until the release
+    private void stallTheWriter() {
+        pipeline.publish(LogEventType.ENTRY, new StubSignature() {
+            @Override
+            public String getDeclaringTypeName() {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getDeclaringTypeName();
+            }
+        }, new Object[0], null, null);
+
+        assertTimeoutPreemptively(TIMEOUT, () -> writing.await());
+    }
+
+    private static void awaitUntil(final BooleanSupplier condition) {
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            while (!condition.getAsBoolean()) {
+                Thread.sleep(1);
+            }
+        });
+    }
+
+    private static class StubSignature implements Signature {
+
+        @Override
+        public String toShortString() {
+            return "ProductService.getProductById(..)";
+        }
+
+        @Override
+        public String toLongString() {
+            return "public Product ProductService.getProductById(int)";
+        }
+
+        @Override
+        public String getName() {
+            return "getProductById";
+        }
+
+        @Override
+        public int getModifiers() {
+            return 1;
+        }
+
+        @Override
+        public Class getDeclaringType() {
+            return Object.class;
+        }
+
+        @Override
+        public String getDeclaringTypeName() {
+            return "ProductService";
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package net.safedata.java.advanced.training.aop.logging;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogRingBufferTest {
+
+    @Test
+    @DisplayName("Given a capacity which is not a power of two, when creating the buffer then it is rejected")
+    void givenACapacityWhichIsNotAPowerOfTwo_whenCreatingTheBuffer_thenItIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new LogRingBuffer(1));
+        assertThrows(IllegalArgumentException.class, () -> new LogRingBuffer(6));
+        assertEquals(8, new LogRingBuffer(8).capacity());
+    }
+
+    @Test
+    @DisplayName("Given a full buffer, when claiming a position then no position is returned until one is drained")
+    void givenAFullBuffer_whenClaimingAPosition_thenNoPositionIsReturned() {
+        final LogRingBuffer buffer = new LogRingBuffer(4);
+        for (int index = 0; index < 4; index++) {
+            publish(buffer, buffer.claim(), index);
+        }
+
+        assertEquals(-1, buffer.claim());
+
+        final List<Object> drained = new ArrayList<>();
+        assertEquals(1, buffer.drain(event -> drained.add(event.arguments[0]), 1));
+        assertEquals(4, buffer.claim());
+        assertEquals(List.of(0), drained);
+    }
+
+    @Test
+    @DisplayName("Given many laps around the buffer, when draining then the events come in the published order")
+    void givenManyLaps_whenDraining_thenTheEventsAreInOrderAndCleared() {
+        final LogRingBuffer buffer = new LogRingBuffer(8);
+        final List<Object> drained = new ArrayList<>();
+        final List<LogEvent> consumed = new ArrayList<>();
+
+        int next = 0;
+        for (int lap = 0; lap < 1000; lap++) {
+            for (int index = 0; index < 5; index++) {
+                publish(buffer, buffer.claim(), next++);
+            }
+            buffer.drain(event -> {
+                drained.add(event.arguments[0]);
+                consumed.add(event);
+            }, 5);
+        }
+
+        assertTrue(buffer.isEmpty());
+        assertEquals(5000, drained.size());
+        for (int index = 0; index < drained.size(); index++) {
+            assertEquals(index, drained.get(index));
+        }
+        consumed.forEach(event -> assertNull(event.arguments));
+    }
+
+    @Test
+    @DisplayName("Given concurrent producers, when draining then every event is consumed once, in producer order")
+    void givenConcurrentProducers_whenDraining_thenEveryEventIsConsumedOnceInProducerOrder() {
+        final int producers = 4;
+        final int eventsPerProducer = 50_000;
+        final LogRingBuffer buffer = new LogRingBuffer(64);
+        final ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<?>> publishers = new ArrayList<>();
+            for (int producer = 0; producer < producers; producer++) {
+                final int producerId = producer;
+                publishers.add(executor.submit(() -> {
+                    start.await();
+                    for (int sequence = 0; sequence < eventsPerProducer; sequence++) {
+                        long position;
+                        // yielding, not spinning, so the consumer progresses even on a single CPU
+                        while ((position = buffer.claim()) < 0) {
+                            Thread.yield();
+                        }
+                        final LogEvent event = buffer.get(position);
+                        event.set(LogEventType.ENTRY, null, new Object[] {producerId, sequence}, null, null);
+                        buffer.publish(position);
+                    }
+                    return null;
+                }));
+            }
+
+            final int[] nextSequences = new int[producers];
+            start.countDown();
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+                long consumed = 0;
+                while (consumed < (long) producers * eventsPerProducer) {
+                    final int drained = buffer.drain(event -> {
+                        final int producer = (int) event.arguments[0];
+                        assertEquals(nextSequences[producer]++, (int) event.arguments[1]);
+                    }, 128);
+                    if (drained == 0) {
+                        Thread.yield();
+                    }
+                    consumed += drained;
+                }
+                for (Future<?> publisher : publishers) {
+                    publisher.get();
+                }
+            });
+
+            final int[] expected = new int[producers];
+            Arrays.fill(expected, eventsPerProducer);
+            assertArrayEquals(expected, nextSequences);
+            assertTrue(buffer.isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void publish(final LogRingBuffer buffer, final long position, final int value) {
+        assertTrue(position >= 0);
+        buffer.get(position)
+              .set(LogEventType.ENTRY, null, new Object[] {value}, null, null);
+        buffer.publish(position);
+    }
+}
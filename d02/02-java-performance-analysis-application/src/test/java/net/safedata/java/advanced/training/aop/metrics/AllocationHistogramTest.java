@@ -0,0 +1,60 @@
+package net.safedata.java.advanced.training.aop.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AllocationHistogramTest {
+
+    private final AllocationHistogram histogram = new AllocationHistogram();
+
+    @Test
+    @DisplayName("Given no invocation, when reading the stats then they are all zero")
+    void givenNoInvocation_whenReadingTheStats_thenTheyAreZero() {
+        final AllocationStats stats = histogram.getStats("method");
+
+        assertEquals(0, stats.invocations());
+        assertEquals(0, stats.averageBytes());
+        assertEquals(0, stats.p99Bytes());
+        assertEquals(Map.of(), stats.histogram());
+    }
+
+    @Test
+    @DisplayName("Given recorded allocations, when reading the stats then they are counted in power of two buckets")
+    void givenRecordedAllocations_whenReadingTheStats_thenTheyAreBucketed() {
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(1000);
+        histogram.record(1023);
+        histogram.record(1024);
+        histogram.record(-1);
+
+        final AllocationStats stats = histogram.getStats("method");
+        assertEquals(5, stats.invocations());
+        assertEquals(1, stats.unmeasuredInvocations());
+        assertEquals(3048, stats.totalBytes());
+        assertEquals(609, stats.averageBytes());
+        assertEquals(1024, stats.maxBytes());
+        assertEquals(Map.of(0L, 1L, 1L, 1L, 1023L, 2L, 2047L, 1L), stats.histogram());
+    }
+
+    @Test
+    @DisplayName("Given recorded allocations, when reading the percentiles then they are capped by the max")
+    void givenRecordedAllocations_whenReadingThePercentiles_thenTheyAreCappedByTheMax() {
+        for (int index = 0; index < 99; index++) {
+            histogram.record(100);
+        }
+        histogram.record(5000);
+
+        final AllocationStats stats = histogram.getStats("method");
+        assertEquals(127, stats.p50Bytes());
+        assertEquals(127, stats.p99Bytes());
+        assertEquals(5000, stats.maxBytes());
+
+        histogram.record(5000);
+        assertEquals(5000, histogram.getStats("method").p99Bytes());
+    }
+}
@@ -0,0 +1,134 @@
+package net.safedata.java.advanced.training.aop.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    @DisplayName("Given values below 64, when bucketing them then every value has its own bucket")
+    void givenLowValues_whenBucketingThem_thenTheyAreExact() {
+        for (long value = 0; value < 64; value++) {
+            assertEquals(value, LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value)));
+        }
+    }
+
+    @Test
+    @DisplayName("Given any values, when bucketing them then the bucket bound is within 3.2% above the value")
+    void givenAnyValues_whenBucketingThem_thenTheRelativeErrorIsBounded() {
+        final Random random = new Random(42);
+        for (int sample = 0; sample < 100_000; sample++) {
+            final long value = random.nextLong(1L << 50);
+            final long upperBound = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value));
+
+            assertTrue(upperBound >= value, "The bucket of " + value + " ends at " + upperBound);
+            assertTrue(upperBound - value <= value * 0.032, "The bucket of " + value + " ends at " + upperBound);
+        }
+    }
+
+    @Test
+    @DisplayName("Given consecutive buckets, when bucketing their bounds then the buckets are contiguous")
+    void givenConsecutiveBuckets_whenBucketingTheirBounds_thenTheBucketsAreContiguous() {
+        for (int bucket = 0; bucket < LatencyHistogram.BUCKETS - 1; bucket++) {
+            final long upperBound = LatencyHistogram.bucketUpperBound(bucket);
+
+            assertEquals(bucket, LatencyHistogram.bucketIndex(upperBound));
+            assertEquals(bucket + 1, LatencyHistogram.bucketIndex(upperBound + 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Given recorded values, when reading the percentiles then they are within the bucket error")
+    void givenRecordedValues_whenReadingThePercentiles_thenTheyAreWithinTheBucketError() {
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1000);
+        }
+        histogram.record(-1);
+
+        final HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(10_000, snapshot.getTotalCount());
+        assertWithinBucketError(5_000_000, snapshot.valueAtPercentile(50));
+        assertWithinBucketError(9_900_000, snapshot.valueAtPercentile(99));
+        assertEquals(10_000_000, snapshot.valueAtPercentile(100));
+
+        final LatencyStats stats = snapshot.toStats();
+        assertEquals(10_000, stats.count());
+        assertEquals(10_000_000, stats.max());
+    }
+
+    @Test
+    @DisplayName("Given an older snapshot, when subtracting it then only the values recorded since are left")
+    void givenAnOlderSnapshot_whenSubtractingIt_thenOnlyTheNewerValuesAreLeft() {
+        for (int index = 0; index < 1000; index++) {
+            histogram.record(1_000_000);
+        }
+        final HistogramSnapshot older = histogram.snapshot();
+        for (int index = 0; index < 10; index++) {
+            histogram.record(100);
+        }
+
+        final HistogramSnapshot interval = histogram.snapshot().minus(older);
+        assertEquals(10, interval.getTotalCount());
+        assertWithinBucketError(100, interval.valueAtPercentile(50));
+        assertWithinBucketError(100, interval.valueAtPercentile(100));
+
+        assertEquals(0, histogram.snapshot().minus(histogram.snapshot()).getTotalCount());
+        assertEquals(0, HistogramSnapshot.EMPTY.valueAtPercentile(99));
+    }
+
+    @Test
+    @DisplayName("Given concurrent recorders, when taking a snapshot then the counts of all the stripes are summed")
+    void givenConcurrentRecorders_whenTakingASnapshot_thenNoValueIsLost() {
+        final int threads = 8;
+        final int valuesPerThread = 100_000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<?>> recorders = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                final long value = 1000L * (thread + 1);
+                recorders.add(executor.submit(() -> {
+                    start.await();
+                    for (int index = 0; index < valuesPerThread; index++) {
+                        histogram.record(value);
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+                for (Future<?> recorder : recorders) {
+                    recorder.get();
+                }
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals((long) threads * valuesPerThread, snapshot.getTotalCount());
+        assertEquals(8000, snapshot.toStats().max());
+        assertWithinBucketError(4000, snapshot.valueAtPercentile(50));
+    }
+
+    private static void assertWithinBucketError(final long expected, final long actual) {
+        assertTrue(actual >= expected && actual - expected <= expected * 0.032,
+                "Expected about " + expected + ", but was " + actual);
+    }
+}
@@ -0,0 +1,36 @@
+package net.safedata.java.advanced.training.aop.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MethodProfileTest {
+
+    private final MethodProfile profile = new MethodProfile("ProductService.getALotOfProducts",
+            new SamplingPolicy(SamplingMode.ALL, 0));
+
+    @Test
+    @DisplayName("Given executions without a CPU time, when reading the latencies then they are counted as unmeasured")
+    void givenExecutionsWithoutACpuTime_whenReadingTheLatencies_thenTheyAreCountedAsUnmeasured() {
+        profile.recordExecution(2_000, 1_000);
+        profile.recordExecution(3_000, -1);
+        profile.recordExecution(4_000, -1);
+
+        final MethodLatencyStats stats = profile.getLatencyStats();
+        assertEquals(3, stats.wallTime().count());
+        assertEquals(1, stats.cpuTime().count());
+        assertEquals(2, stats.unmeasuredCpuTimes());
+    }
+
+    @Test
+    @DisplayName("Given unmeasured CPU times, when resetting the latencies then the next interval starts from zero")
+    void givenUnmeasuredCpuTimes_whenResettingTheLatencies_thenTheNextIntervalStartsFromZero() {
+        profile.recordExecution(3_000, -1);
+        assertEquals(1, profile.resetLatencyStats().unmeasuredCpuTimes());
+
+        profile.recordExecution(3_000, -1);
+        profile.recordExecution(3_000, -1);
+        assertEquals(2, profile.getLatencyStats().unmeasuredCpuTimes());
+    }
+}
@@ -0,0 +1,143 @@
+package net.safedata.java.advanced.training.errorhandling;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class ErrorMetricsTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final ErrorMetrics errorMetrics = new ErrorMetrics(new StackTraceSampler(ErrorLoggingMode.FULL, 1), clock);
+
+    @Test
+    @DisplayName("Given failures of several endpoints, when reporting then they are counted by exception and endpoint")
+    void givenFailuresOfSeveralEndpoints_whenReporting_thenTheyAreCountedByExceptionAndEndpoint() {
+        assertEquals("GET /product/{id}", record(new IllegalArgumentException(), request("GET", "/product/{id}")));
+        record(new IllegalArgumentException(), request("GET", "/product/{id}"));
+        record(new IllegalStateException(), request("GET", "/product/{id}"));
+        record(new IllegalArgumentException(), request("POST", "/product"));
+        assertEquals("GET unmapped", record(new IllegalStateException(), request("GET", null)));
+
+        final List<ErrorStats> errors = errorMetrics.getReport().errors();
+        assertEquals(4, errors.size());
+        assertEquals(new ErrorStats(IllegalArgumentException.class.getName(), "GET /product/{id}", 2, 2, 2.0 / 60),
+                errors.get(0));
+        assertEquals(1, stats(errors, IllegalStateException.class, "GET /product/{id}").count());
+        assertEquals(1, stats(errors, IllegalArgumentException.class, "POST /product").count());
+        assertEquals(1, stats(errors, IllegalStateException.class, "GET unmapped").count());
+    }
+
+    @Test
+    @DisplayName("Given failures over more than a minute, when reporting then only the last minute is in the window")
+    void givenFailuresOverMoreThanAMinute_whenReporting_thenOnlyTheLastMinuteIsInTheWindow() {
+        recordFailures(3);
+        clock.advance(Duration.ofSeconds(30));
+        recordFailures(2);
+        assertEquals(5, onlyStats().lastMinute());
+
+        // the slot of the first second is reused, its old count is dropped
+        clock.advance(Duration.ofSeconds(30));
+        recordFailures(1);
+        assertEquals(3, onlyStats().lastMinute());
+
+        clock.advance(Duration.ofSeconds(60));
+        assertEquals(0, onlyStats().lastMinute());
+        assertEquals(6, onlyStats().count());
+    }
+
+    @Test
+    @DisplayName("Given concurrent failures of an endpoint, when reporting then none of them is lost")
+    void givenConcurrentFailuresOfAnEndpoint_whenReporting_thenNoneIsLost() {
+        final int threads = 4;
+        final int failuresPerThread = 10_000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> writers = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                writers.add(executor.submit(() -> recordFailures(failuresPerThread)));
+            }
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                for (Future<?> writer : writers) {
+                    writer.get();
+                }
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * failuresPerThread, onlyStats().count());
+        assertEquals(threads * failuresPerThread, onlyStats().lastMinute());
+    }
+
+    private void recordFailures(final int failures) {
+        for (int failure = 0; failure < failures; failure++) {
+            record(new IllegalStateException(), request("GET", "/product/{id}"));
+        }
+    }
+
+    private String record(final Throwable exception, final MockHttpServletRequest request) {
+        return errorMetrics.record(exception, request);
+    }
+
+    private ErrorStats onlyStats() {
+        final List<ErrorStats> errors = errorMetrics.getReport().errors();
+        assertEquals(1, errors.size());
+        return errors.get(0);
+    }
+
+    private static MockHttpServletRequest request(final String method, final String pattern) {
+        final MockHttpServletRequest request = new MockHttpServletRequest(method, "/product/1");
+        if (pattern != null) {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        }
+        return request;
+    }
+
+    private static ErrorStats stats(final List<ErrorStats> errors, final Class<? extends Throwable> exception,
+                                    final String endpoint) {
+        return errors.stream()
+                     .filter(stats -> stats.exception().equals(exception.getName()) &&
+                             stats.endpoint().equals(endpoint))
+                     .findFirst()
+                     .orElseThrow();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(final Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package net.safedata.java.advanced.training.errorhandling;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StackTraceSamplerTest {
+
+    // one stack trace every 1000 s, so a test never sees a second permit
+    private static final double RARE_TRACES_PER_SECOND = 0.001;
+
+    @Test
+    @DisplayName("Given the sampled mode, when a burst of failures comes then only the first stack trace is logged")
+    void givenTheSampledMode_whenABurstOfFailuresComes_thenOnlyTheFirstStackTraceIsLogged() {
+        final StackTraceSampler sampler = new StackTraceSampler(ErrorLoggingMode.SAMPLED, RARE_TRACES_PER_SECOND);
+
+        assertTrue(sampler.shouldLog());
+        for (int failure = 1; failure < 100; failure++) {
+            assertFalse(sampler.shouldLog());
+        }
+
+        assertEquals(1, sampler.getLogged());
+        assertEquals(99, sampler.getSuppressed());
+    }
+
+    @Test
+    @DisplayName("Given the sampled mode, when the permit interval passes then another stack trace is logged")
+    void givenTheSampledMode_whenThePermitIntervalPasses_thenAnotherStackTraceIsLogged() throws InterruptedException {
+        // one permit every 10 ms
+        final StackTraceSampler sampler = new StackTraceSampler(ErrorLoggingMode.SAMPLED, 100);
+
+        assertTrue(sampler.shouldLog());
+        assertFalse(sampler.shouldLog());
+
+        Thread.sleep(20);
+        assertTrue(sampler.shouldLog());
+        assertEquals(2, sampler.getLogged());
+    }
+
+    @Test
+    @DisplayName("Given concurrent failures in the sampled mode, when sampling then a single permit is granted")
+    void givenConcurrentFailures_whenSampling_thenASinglePermitIsGranted() {
+        final StackTraceSampler sampler = new StackTraceSampler(ErrorLoggingMode.SAMPLED, RARE_TRACES_PER_SECOND);
+        final int threads = 4;
+        final int failuresPerThread = 1_000;
+        final CountDownLatch start = new CountDownLatch(1);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Integer>> samplings = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                samplings.add(executor.submit(() -> {
+                    start.await();
+                    int logged = 0;
+                    for (int failure = 0; failure < failuresPerThread; failure++) {
+                        logged += sampler.shouldLog() ? 1 : 0;
+                    }
+                    return logged;
+                }));
+            }
+            start.countDown();
+
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                int logged = 0;
+                for (Future<Integer> sampling : samplings) {
+                    logged += sampling.get();
+                }
+                assertEquals(1, logged);
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, sampler.getLogged());
+        assertEquals(threads * failuresPerThread - 1, sampler.getSuppressed());
+    }
+
+    @Test
+    @DisplayName("Given the full mode, when failures come then every stack trace is logged")
+    void givenTheFullMode_whenFailuresCome_thenEveryStackTraceIsLogged() {
+        final StackTraceSampler sampler = new StackTraceSampler(ErrorLoggingMode.FULL, RARE_TRACES_PER_SECOND);
+
+        for (int failure = 0; failure < 10; failure++) {
+            assertTrue(sampler.shouldLog());
+        }
+        assertEquals(10, sampler.getLogged());
+        assertEquals(0, sampler.getSuppressed());
+    }
+
+    @Test
+    @DisplayName("Given a non-positive rate, when creating the sampler then it is rejected")
+    void givenANonPositiveRate_whenCreatingTheSampler_thenItIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new StackTraceSampler(ErrorLoggingMode.SAMPLED, 0));
+    }
+}
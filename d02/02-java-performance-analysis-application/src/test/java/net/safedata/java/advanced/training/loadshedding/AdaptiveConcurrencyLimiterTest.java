@@ -0,0 +1,138 @@
+package net.safedata.java.advanced.training.loadshedding;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // the permits held by the simulated requests - the limiter is kept saturated, so its limit is used
+    private int held;
+
+    @Test
+    @DisplayName("Given a stable latency and a used limit, when sampling then the limit grows up to the max")
+    void givenAStableLatency_whenSampling_thenTheLimitGrowsUpToTheMax() {
+        final AdaptiveConcurrencyLimiter limiter = limiter(10, 1, 40);
+
+        int previousLimit = limiter.getLimit();
+        for (int sample = 0; sample < 100; sample++) {
+            sample(limiter, MILLISECOND);
+            assertTrue(limiter.getLimit() >= previousLimit);
+            previousLimit = limiter.getLimit();
+        }
+
+        assertEquals(40, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Given an under-used limit, when sampling then the limit does not grow")
+    void givenAnUnderUsedLimit_whenSampling_thenTheLimitDoesNotGrow() {
+        final AdaptiveConcurrencyLimiter limiter = limiter(10, 1, 40);
+
+        for (int sample = 0; sample < 100; sample++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(MILLISECOND);
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Given a latency growing past the baseline, when sampling then the limit is shrunk")
+    void givenALatencyGrowingPastTheBaseline_whenSampling_thenTheLimitIsShrunk() {
+        final AdaptiveConcurrencyLimiter limiter = limiter(40, 1, 40);
+        for (int sample = 0; sample < 20; sample++) {
+            sample(limiter, MILLISECOND);
+        }
+        assertEquals(40, limiter.getLimit());
+
+        sample(limiter, 10 * MILLISECOND);
+
+        // 40 * 0.5 + sqrt(40)
+        assertEquals(26, limiter.getLimit());
+        assertEquals(0.5, limiter.getStats().gradient());
+        assertFalse(limiter.tryAcquire());
+        assertTrue(limiter.getStats().rejectedRequests() > 0);
+    }
+
+    @Test
+    @DisplayName("Given a latency within the tolerance of the baseline, when sampling then the limit is not shrunk")
+    void givenALatencyWithinTheTolerance_whenSampling_thenTheLimitIsNotShrunk() {
+        final AdaptiveConcurrencyLimiter limiter = limiter(20, 1, 40);
+
+        int previousLimit = limiter.getLimit();
+        for (int sample = 0; sample < 100; sample++) {
+            sample(limiter, sample % 2 == 0 ? MILLISECOND : 14 * MILLISECOND / 10);
+            assertTrue(limiter.getLimit() >= previousLimit);
+            previousLimit = limiter.getLimit();
+        }
+    }
+
+    @Test
+    @DisplayName("Given a steadily growing latency, when sampling then the limit is clamped at the min")
+    void givenASteadilyGrowingLatency_whenSampling_thenTheLimitIsClampedAtTheMin() {
+        final AdaptiveConcurrencyLimiter limiter = limiter(40, 6, 40);
+
+        long latency = MILLISECOND;
+        for (int sample = 0; sample < 30; sample++) {
+            sample(limiter, latency);
+            latency *= 2;
+            assertTrue(limiter.getLimit() >= 6);
+        }
+
+        assertEquals(6, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Given a mix of cache hits and misses, when sampling then the limit does not collapse")
+    void givenAMixOfCacheHitsAndMisses_whenSampling_thenTheLimitDoesNotCollapse() {
+        // the windows of 20 requests mix hits of 10 microseconds and misses of 100 ms
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 1, 200, 1.0, Duration.ZERO, 20);
+        final Random random = new Random(42);
+
+        int minLimit = Integer.MAX_VALUE;
+        for (int sample = 0; sample < 20_000; sample++) {
+            sample(limiter, random.nextBoolean() ? TimeUnit.MICROSECONDS.toNanos(10) : 100 * MILLISECOND);
+            if (sample >= 2000) {
+                minLimit = Math.min(minLimit, limiter.getLimit());
+            }
+        }
+
+        assertTrue(minLimit >= 20, "The limit has collapsed to " + minLimit);
+    }
+
+    @Test
+    @DisplayName("Given invalid limits or smoothing, when creating the limiter then it is rejected")
+    void givenInvalidLimitsOrSmoothing_whenCreatingTheLimiter_thenItIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptiveConcurrencyLimiter(10, 0, 40, 1.0, Duration.ZERO, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptiveConcurrencyLimiter(10, 20, 10, 1.0, Duration.ZERO, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptiveConcurrencyLimiter(10, 1, 40, 0, Duration.ZERO, 1));
+        assertEquals(40, new AdaptiveConcurrencyLimiter(100, 1, 40, 1.0, Duration.ZERO, 1).getLimit());
+    }
+
+    // every sample closes a window, without smoothing, so each one is checked on its own
+    private static AdaptiveConcurrencyLimiter limiter(final int initialLimit, final int minLimit, final int maxLimit) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, 1.0, Duration.ZERO, 1);
+    }
+
+    private void sample(final AdaptiveConcurrencyLimiter limiter, final long latencyNanos) {
+        while (limiter.tryAcquire()) {
+            held++;
+        }
+        limiter.release(latencyNanos);
+        held--;
+    }
+}
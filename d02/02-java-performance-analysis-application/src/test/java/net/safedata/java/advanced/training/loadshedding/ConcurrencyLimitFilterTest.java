@@ -0,0 +1,60 @@
+package net.safedata.java.advanced.training.loadshedding;
+
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class ConcurrencyLimitFilterTest {
+
+    // a limit of one request, which is already in flight
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1.0, Duration.ZERO, 1);
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limiter);
+
+    @Test
+    @DisplayName("Given a saturated limit, when a limited request comes then it is shed with a Retry-After")
+    void givenASaturatedLimit_whenALimitedRequestComes_thenItIsShed() throws ServletException, IOException {
+        limiter.tryAcquire();
+
+        final MockHttpServletResponse response = filter("/product/long/tablet-stats");
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), response.getStatus());
+        assertNotNull(response.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    @DisplayName("Given a saturated limit, when a stats request comes then it is not limited")
+    void givenASaturatedLimit_whenAStatsRequestComes_thenItIsNotLimited() throws ServletException, IOException {
+        limiter.tryAcquire();
+
+        assertEquals(HttpStatus.OK.value(), filter("/product/long/limit-stats").getStatus());
+        assertEquals(HttpStatus.OK.value(), filter("/product/long/sync-stats").getStatus());
+        assertEquals(0, limiter.getStats().rejectedRequests());
+    }
+
+    @Test
+    @DisplayName("Given a free limit, when a limited request completes then its permit is released")
+    void givenAFreeLimit_whenALimitedRequestCompletes_thenItsPermitIsReleased() throws ServletException, IOException {
+        assertEquals(HttpStatus.OK.value(), filter("/product/long/tablet").getStatus());
+
+        assertEquals(0, limiter.getStats().inFlight());
+        assertEquals(1, limiter.getStats().acceptedRequests());
+    }
+
+    private MockHttpServletResponse filter(final String uri) throws ServletException, IOException {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
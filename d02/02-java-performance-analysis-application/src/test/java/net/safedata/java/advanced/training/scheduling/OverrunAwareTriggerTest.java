@@ -0,0 +1,98 @@
+package net.safedata.java.advanced.training.scheduling;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OverrunAwareTriggerTest {
+
+    private static final Duration PERIOD = Duration.ofSeconds(1);
+    // 250 ms of idle time after an overrun
+    private static final double MIN_IDLE_RATIO = 0.25;
+
+    private static final Instant NOW = Instant.ofEpochMilli(10_000);
+
+    private final SimpleTriggerContext triggerContext = new SimpleTriggerContext(Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    @DisplayName("Given no previous run, when computing the next execution, then the job runs right away")
+    void givenNoPreviousRun_whenComputingTheNextExecution_thenTheJobRunsRightAway() {
+        final OverrunAwareTrigger trigger = trigger(SchedulingMode.ADAPTIVE);
+
+        assertEquals(NOW, trigger.nextExecution(triggerContext));
+        assertEquals(0, trigger.getStats().runs());
+    }
+
+    @Test
+    @DisplayName("Given a run within its period, when computing the next execution, then the rate is kept")
+    void givenARunWithinItsPeriod_whenComputingTheNextExecution_thenTheRateIsKept() {
+        final OverrunAwareTrigger trigger = trigger(SchedulingMode.ADAPTIVE);
+
+        assertEquals(at(11_000), nextExecution(trigger, 10_000, 10_050, 10_400));
+
+        final JobStats stats = trigger.getStats();
+        assertEquals(1, stats.runs());
+        assertEquals(0, stats.overruns());
+        assertEquals(50, stats.lastLagMillis());
+        assertEquals(350, stats.lastDurationMillis());
+    }
+
+    @Test
+    @DisplayName("Given an overrun in the adaptive mode, when computing the next execution, then the missed slots " +
+            "are coalesced")
+    void givenAnAdaptiveOverrun_whenComputingTheNextExecution_thenTheMissedSlotsAreCoalesced() {
+        final OverrunAwareTrigger trigger = trigger(SchedulingMode.ADAPTIVE);
+
+        // the 11 s and 12 s slots have passed, the 13 s one leaves only 300 ms of idle time
+        assertEquals(at(13_000), nextExecution(trigger, 10_000, 10_000, 12_700));
+        assertEquals(2, trigger.getStats().skippedRuns());
+
+        // the 15 s slot would leave only 200 ms of idle time, below the 250 ms minimum
+        assertEquals(at(16_000), nextExecution(trigger, 13_000, 13_000, 14_800));
+
+        final JobStats stats = trigger.getStats();
+        assertEquals(2, stats.runs());
+        assertEquals(2, stats.overruns());
+        assertEquals(4, stats.skippedRuns());
+        assertEquals(2_700, stats.maxDurationMillis());
+    }
+
+    @Test
+    @DisplayName("Given an overrun in the fixed rate mode, when computing the next executions, then the missed " +
+            "runs catch up back to back")
+    void givenAFixedRateOverrun_whenComputingTheNextExecutions_thenTheMissedRunsCatchUp() {
+        final OverrunAwareTrigger trigger = trigger(SchedulingMode.FIXED_RATE);
+
+        // the next slot is already in the past, so it runs right after the overrun
+        assertEquals(at(11_000), nextExecution(trigger, 10_000, 10_000, 12_700));
+        assertEquals(at(12_000), nextExecution(trigger, 11_000, 12_700, 12_750));
+        assertEquals(at(13_000), nextExecution(trigger, 12_000, 12_750, 12_800));
+
+        final JobStats stats = trigger.getStats();
+        assertEquals(3, stats.runs());
+        assertEquals(2, stats.overruns());
+        assertEquals(0, stats.skippedRuns());
+        assertEquals(1_700, stats.maxLagMillis());
+    }
+
+    private Instant nextExecution(final OverrunAwareTrigger trigger, final long scheduled, final long actual,
+                                  final long completion) {
+        triggerContext.update(at(scheduled), at(actual), at(completion));
+        return trigger.nextExecution(triggerContext);
+    }
+
+    private static OverrunAwareTrigger trigger(final SchedulingMode mode) {
+        return new OverrunAwareTrigger("report", mode, PERIOD, MIN_IDLE_RATIO);
+    }
+
+    private static Instant at(final long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis);
+    }
+}
@@ -0,0 +1,63 @@
+package net.safedata.java.advanced.training.service.aggregation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LifetimePriceAggregateTest {
+
+    // 10 buckets of 10
+    private final LifetimePriceAggregate aggregate = new LifetimePriceAggregate(100, 10);
+
+    @Test
+    @DisplayName("Given prices within the range, when adding them then each one lands in its bucket")
+    void givenPricesWithinTheRange_whenAddingThem_thenEachOneLandsInItsBucket() {
+        aggregate.add(0);
+        aggregate.add(9.99);
+        aggregate.add(10);
+        aggregate.add(55);
+        aggregate.add(99.99);
+
+        assertEquals(List.of(2L, 1L, 0L, 0L, 0L, 1L, 0L, 0L, 0L, 1L), aggregate.getStats().histogram());
+    }
+
+    @Test
+    @DisplayName("Given prices out of the range, when adding them then they land in the first or the last bucket")
+    void givenPricesOutOfTheRange_whenAddingThem_thenTheyLandInTheEdgeBuckets() {
+        aggregate.add(-0.5);
+        aggregate.add(-1e12);
+        aggregate.add(100);
+        aggregate.add(1e12);
+
+        final PriceStats stats = aggregate.getStats();
+        assertEquals(List.of(2L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 2L), stats.histogram());
+        assertEquals(4, stats.count());
+        assertEquals(-1e12, stats.min());
+        assertEquals(1e12, stats.max());
+    }
+
+    @Test
+    @DisplayName("Given no prices, when reading the stats then they are all zero")
+    void givenNoPrices_whenReadingTheStats_thenTheyAreAllZero() {
+        final PriceStats stats = aggregate.getStats();
+
+        assertEquals(0, stats.count());
+        assertEquals(0, stats.min());
+        assertEquals(0, stats.max());
+        assertEquals(10, stats.bucketWidth());
+    }
+
+    @Test
+    @DisplayName("Given a non-positive max or buckets count, when creating the aggregate then it is rejected")
+    void givenANonPositiveMaxOrBucketsCount_whenCreatingTheAggregate_thenItIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new LifetimePriceAggregate(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new LifetimePriceAggregate(-100, 10));
+        assertThrows(IllegalArgumentException.class, () -> new LifetimePriceAggregate(Double.NaN, 10));
+        assertThrows(IllegalArgumentException.class, () -> new LifetimePriceAggregate(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new LifetimePriceAggregate(100, -1));
+    }
+}
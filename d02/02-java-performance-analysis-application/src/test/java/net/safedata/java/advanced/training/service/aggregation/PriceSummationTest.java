@@ -0,0 +1,92 @@
+package net.safedata.java.advanced.training.service.aggregation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class PriceSummationTest {
+
+    private static final int SIZE = 1_000_000;
+
+    private final ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+
+    // the smallest accepted threshold runs the fork/join path, the other one never does
+    private final PriceSummation parallelSummation = new PriceSummation(forkJoinPool, 0);
+    private final PriceSummation sequentialSummation = new PriceSummation(forkJoinPool, Integer.MAX_VALUE);
+
+    @AfterEach
+    void tearDown() {
+        forkJoinPool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Given large and small prices, when summing them then the small ones are not lost to rounding")
+    void givenLargeAndSmallPrices_whenSummingThem_thenTheSmallOnesAreNotLost() {
+        final double[] prices = new double[SIZE];
+        prices[0] = 1e16;
+        for (int index = 1; index < SIZE - 1; index++) {
+            prices[index] = 1.0;
+        }
+        prices[SIZE - 1] = -1e16;
+
+        double naive = 0;
+        for (double price : prices) {
+            naive += price;
+        }
+
+        final double exact = SIZE - 2;
+        assertNotEquals(exact, naive);
+        assertEquals(exact, parallelSummation.sum(prices));
+        assertEquals(exact, sequentialSummation.sum(prices));
+        assertEquals(exact, parallelSummation.sum(toBuffer(prices), 0, SIZE).value());
+    }
+
+    @Test
+    @DisplayName("Given random prices, when summing them in parallel and sequentially then the totals are the same")
+    void givenRandomPrices_whenSummingInParallelAndSequentially_thenTheTotalsAreTheSame() {
+        final Random random = new Random(42);
+        final double[] prices = new double[SIZE + 123];
+        for (int index = 0; index < prices.length; index++) {
+            prices[index] = random.nextDouble() * Math.pow(10, random.nextInt(12));
+        }
+
+        final double sequential = sequentialSummation.sum(prices);
+        assertEquals(sequential, parallelSummation.sum(prices));
+        assertEquals(sequential, parallelSummation.sum(toBuffer(prices), 0, prices.length).value());
+        assertEquals(sequential, sequentialSummation.sum(toBuffer(prices), 0, prices.length).value());
+    }
+
+    @Test
+    @DisplayName("Given a sub-range of the prices, when summing it then only the prices in the range are summed")
+    void givenASubRange_whenSummingIt_thenOnlyThePricesInTheRangeAreSummed() {
+        final double[] prices = new double[100_000];
+        for (int index = 0; index < prices.length; index++) {
+            prices[index] = index;
+        }
+
+        assertEquals(45.0, parallelSummation.sum(prices, 0, 10).value());
+        assertEquals(sumOfRange(1000, 90_000), parallelSummation.sum(prices, 1000, 90_000).value());
+        assertEquals(sumOfRange(1000, 90_000), parallelSummation.sum(toBuffer(prices), 1000, 90_000).value());
+    }
+
+    private static double sumOfRange(final long from, final long to) {
+        return (double) (from + to - 1) * (to - from) / 2;
+    }
+
+    private static DoubleBuffer toBuffer(final double[] prices) {
+        final DoubleBuffer buffer = ByteBuffer.allocateDirect(prices.length * Double.BYTES)
+                                              .order(ByteOrder.nativeOrder())
+                                              .asDoubleBuffer();
+        buffer.put(prices);
+        return buffer;
+    }
+}
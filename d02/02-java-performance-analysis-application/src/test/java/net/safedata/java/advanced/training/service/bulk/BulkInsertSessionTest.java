@@ -0,0 +1,103 @@
+package net.safedata.java.advanced.training.service.bulk;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkInsertSessionTest {
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private final List<BulkInsertReport> reports = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:bulk-insert-session", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE product (id BIGINT PRIMARY KEY, name VARCHAR(255), price DOUBLE)");
+        jdbcTemplate.execute("CREATE SEQUENCE product_seq START WITH 1 INCREMENT BY 1000");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Test
+    @DisplayName("Given added rows, when finishing the session then all the rows are committed and reported")
+    void givenAddedRows_whenFinishingTheSession_thenAllTheRowsAreCommittedAndReported() {
+        final BulkInsertReport report;
+        try (BulkInsertSession session = openSession(1000)) {
+            for (int index = 0; index < 2500; index++) {
+                session.add("The product " + index, index);
+            }
+            report = session.finish();
+        }
+
+        assertEquals(2500, report.rows());
+        assertEquals(2500, countProducts());
+        assertEquals(List.of(report), reports);
+    }
+
+    @Test
+    @DisplayName("Given an exception in the session block, when closing the session then the uncommitted rows are rolled back")
+    void givenAnExceptionInTheSessionBlock_whenClosingTheSession_thenTheUncommittedRowsAreRolledBack() {
+        assertThrows(IllegalStateException.class, () -> {
+            try (BulkInsertSession session = openSession(1_000_000)) {
+                for (int index = 0; index < 2500; index++) {
+                    session.add("The product " + index, index);
+                }
+                throw new IllegalStateException("The input has failed");
+            }
+        });
+
+        assertEquals(0, countProducts());
+        assertTrue(reports.isEmpty(), "A rolled back session must not be reported");
+    }
+
+    @Test
+    @DisplayName("Given chunked commits, when the session is closed without finishing then only the committed chunks remain")
+    void givenChunkedCommits_whenTheSessionIsClosedWithoutFinishing_thenOnlyTheCommittedChunksRemain() {
+        final BulkInsertSession session = openSession(1000);
+        try (session) {
+            for (int index = 0; index < 1500; index++) {
+                session.add("The product " + index, index);
+            }
+        }
+
+        assertEquals(1000, countProducts());
+        assertEquals(1000, session.getCommittedRows());
+        assertTrue(reports.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Given a finished session, when adding a row then it is rejected")
+    void givenAFinishedSession_whenAddingARow_thenItIsRejected() {
+        final BulkInsertSession session = openSession(1000);
+        session.finish();
+
+        assertThrows(IllegalStateException.class, () -> session.add("The product", 1));
+    }
+
+    private BulkInsertSession openSession(final long commitRows) {
+        return new BulkInsertSession(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                new IdBlockAllocator(dataSource), new AdaptiveBatchSizer(100, 100), 100, commitRows, () -> {},
+                reports::add);
+    }
+
+    private long countProducts() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product", Long.class);
+    }
+}
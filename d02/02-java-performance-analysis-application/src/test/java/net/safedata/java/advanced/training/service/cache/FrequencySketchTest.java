@@ -0,0 +1,53 @@
+package net.safedata.java.advanced.training.service.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrequencySketchTest {
+
+    @Test
+    @DisplayName("Given a key accessed a few times, when estimating its frequency then the accesses are counted")
+    void givenAKeyAccessedAFewTimes_whenEstimatingItsFrequency_thenTheAccessesAreCounted() {
+        final FrequencySketch sketch = new FrequencySketch(1024);
+
+        for (int access = 0; access < 5; access++) {
+            sketch.increment("popular");
+        }
+
+        assertEquals(5, sketch.frequency("popular"));
+        assertEquals(0, sketch.frequency("never accessed"));
+    }
+
+    @Test
+    @DisplayName("Given a key accessed very often, when estimating its frequency then the counters saturate at 15")
+    void givenAKeyAccessedVeryOften_whenEstimatingItsFrequency_thenTheCountersSaturate() {
+        final FrequencySketch sketch = new FrequencySketch(1024);
+
+        for (int access = 0; access < 100; access++) {
+            sketch.increment("popular");
+        }
+
+        assertEquals(15, sketch.frequency("popular"));
+    }
+
+    @Test
+    @DisplayName("Given the sample size is reached, when estimating a frequency then all the counters were halved")
+    void givenTheSampleSizeIsReached_whenEstimatingAFrequency_thenAllTheCountersWereHalved() {
+        final FrequencySketch sketch = new FrequencySketch(64);
+        for (int access = 0; access < 15; access++) {
+            sketch.increment("popular");
+        }
+
+        // the counters only decrease on a reset, so the first decrease is the halving of the saturated counters
+        int key = 0;
+        while (sketch.frequency("popular") == 15) {
+            sketch.increment(key++);
+            assertTrue(key <= 10 * 64, "The counters were not reset after the sample size");
+        }
+
+        assertEquals(7, sketch.frequency("popular"));
+    }
+}
@@ -0,0 +1,100 @@
+package net.safedata.java.advanced.training.service.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TinyLfuCacheTest {
+
+    @Test
+    @DisplayName("Given a cached value, when getting it again then it is not loaded again")
+    void givenACachedValue_whenGettingItAgain_thenItIsNotLoadedAgain() {
+        final TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, Duration.ofMinutes(1));
+        final AtomicInteger loads = new AtomicInteger();
+
+        cache.get("key", key -> "value-" + loads.incrementAndGet());
+        final String value = cache.get("key", key -> "value-" + loads.incrementAndGet());
+
+        assertEquals("value-1", value);
+        assertEquals(1, loads.get());
+
+        final CacheStats stats = cache.getStats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    @DisplayName("Given popular keys, when scanning many one-off keys then the popular keys are not evicted")
+    void givenPopularKeys_whenScanningManyOneOffKeys_thenThePopularKeysAreNotEvicted() {
+        final TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, Duration.ofMinutes(1));
+        for (int access = 0; access < 15; access++) {
+            for (int key = 0; key < 50; key++) {
+                cache.get("popular-" + key, String::toUpperCase);
+            }
+        }
+
+        // a plain LRU cache would keep only the last 100 one-off keys
+        for (int key = 0; key < 500; key++) {
+            cache.get("one-off-" + key, String::toUpperCase);
+        }
+
+        // the sketch may overestimate a one-off key colliding with the popular ones, so a few of them can be admitted
+        int retainedPopularKeys = 0;
+        for (int key = 0; key < 50; key++) {
+            if (cache.getIfPresent("popular-" + key) != null) {
+                retainedPopularKeys++;
+            }
+        }
+        assertTrue(retainedPopularKeys >= 45, "Only " + retainedPopularKeys + " popular keys were retained");
+        assertTrue(cache.getStats().admissionRejections() > 0);
+    }
+
+    @Test
+    @DisplayName("Given many distinct keys, when caching them then the size never exceeds the capacity")
+    void givenManyDistinctKeys_whenCachingThem_thenTheSizeNeverExceedsTheCapacity() {
+        final TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(10, Duration.ofMinutes(1));
+
+        for (int key = 0; key < 1000; key++) {
+            cache.put(key, key);
+            assertTrue(cache.getStats().size() <= 10);
+        }
+        assertTrue(cache.getStats().evictions() > 0);
+    }
+
+    @Test
+    @DisplayName("Given an expired entry, when getting it then it is reported as a miss")
+    void givenAnExpiredEntry_whenGettingIt_thenItIsReportedAsAMiss() {
+        final TinyLfuCache<String, String> cache = new TinyLfuCache<>(10, Duration.ZERO);
+
+        cache.put("key", "value");
+
+        assertNull(cache.getIfPresent("key"));
+        assertEquals(1, cache.getStats().expirations());
+        assertEquals(0, cache.getStats().size());
+    }
+
+    @Test
+    @DisplayName("Given an invalidated key, when getting it then it is reloaded")
+    void givenAnInvalidatedKey_whenGettingIt_thenItIsReloaded() {
+        final TinyLfuCache<String, String> cache = new TinyLfuCache<>(10, Duration.ofMinutes(1));
+        cache.put("key", "old");
+
+        cache.invalidate("key");
+
+        assertEquals("new", cache.get("key", key -> "new"));
+    }
+
+    @Test
+    @DisplayName("Given a capacity below 2, when creating the cache then it is rejected")
+    void givenACapacityBelowTwo_whenCreatingTheCache_thenItIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TinyLfuCache<>(1, Duration.ofMinutes(1)));
+    }
+}
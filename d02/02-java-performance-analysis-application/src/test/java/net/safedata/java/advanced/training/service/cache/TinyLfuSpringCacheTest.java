@@ -0,0 +1,55 @@
+package net.safedata.java.advanced.training.service.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TinyLfuSpringCacheTest {
+
+    private final TinyLfuSpringCache cache =
+            new TinyLfuSpringCache("products", new TinyLfuCache<>(100, Duration.ofMinutes(1)));
+
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(
+            new SingleConnectionDataSource("jdbc:h2:mem:tiny-lfu-spring-cache", true)));
+
+    @Test
+    @DisplayName("Given a put outside of a transaction, when getting the key then the value is cached right away")
+    void givenAPutOutsideOfATransaction_whenGettingTheKey_thenTheValueIsCached() {
+        cache.put(1, "Tablet");
+
+        assertEquals("Tablet", cache.get(1, String.class));
+    }
+
+    @Test
+    @DisplayName("Given a put in a transaction, when the transaction commits then the value is cached only after it")
+    void givenAPutInATransaction_whenCommitting_thenTheValueIsCachedAfterTheCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            cache.put(1, "Tablet");
+            assertNull(cache.get(1));
+        });
+
+        assertEquals("Tablet", cache.get(1, String.class));
+    }
+
+    @Test
+    @DisplayName("Given writes in a transaction, when the transaction rolls back then the cache is not changed")
+    void givenWritesInATransaction_whenRollingBack_thenTheCacheIsNotChanged() {
+        cache.put(1, "Tablet");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            cache.put(2, "Phone");
+            cache.evict(1);
+            status.setRollbackOnly();
+        });
+
+        assertEquals("Tablet", cache.get(1, String.class));
+        assertNull(cache.get(2));
+    }
+}
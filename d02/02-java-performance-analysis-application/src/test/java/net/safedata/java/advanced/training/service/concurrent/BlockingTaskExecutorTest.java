@@ -0,0 +1,155 @@
+package net.safedata.java.advanced.training.service.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockingTaskExecutorTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final String WORKER_PREFIX = "blocking-test-worker-";
+
+    // a single thread and a single queue slot
+    private final BlockingTaskExecutor blockingTasks = new BlockingTaskExecutor(1, 1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ForkJoinPool forkJoinPool;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        blockingTasks.shutdown();
+        if (forkJoinPool != null) {
+            forkJoinPool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Given a busy thread and a full queue, when submitting then the task is rejected as a failed future")
+    void givenABusyThreadAndAFullQueue_whenSubmitting_thenTheTaskIsRejected() {
+        final CountDownLatch running = new CountDownLatch(1);
+        blockingTasks.run(() -> {
+            running.countDown();
+            release.await();
+        });
+        assertTimeoutPreemptively(TIMEOUT, () -> running.await());
+        final CompletableFuture<Void> queued = blockingTasks.run(() -> {});
+
+        final CompletableFuture<Void> rejected = blockingTasks.run(() -> {});
+
+        final ExecutionException failure = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+
+        release.countDown();
+        assertTimeoutPreemptively(TIMEOUT, () -> queued.get());
+        final BlockingTaskStats stats = blockingTasks.getStats(false);
+        assertEquals(3, stats.submittedTasks());
+        assertEquals(1, stats.rejectedTasks());
+        assertEquals(-1, stats.blockedCommonPoolWorkers());
+    }
+
+    @Test
+    @DisplayName("Given a task queued behind a busy thread, when it runs then its queue time is recorded")
+    void givenATaskQueuedBehindABusyThread_whenItRuns_thenItsQueueTimeIsRecorded() throws InterruptedException {
+        blockingTasks.run(release::await);
+        final CompletableFuture<String> queued = blockingTasks.supply(() -> "products");
+
+        Thread.sleep(50);
+        release.countDown();
+
+        assertTimeoutPreemptively(TIMEOUT, () -> assertEquals("products", queued.get()));
+        awaitUntil(() -> blockingTasks.getStats(false).completedTasks() == 2);
+        final BlockingTaskStats stats = blockingTasks.getStats(false);
+        assertEquals(2, stats.queueTime().count());
+        assertTrue(stats.queueTime().max() >= TimeUnit.MILLISECONDS.toNanos(50),
+                "The queue time was only " + stats.queueTime().max() + " ns");
+    }
+
+    @Test
+    @DisplayName("Given a single worker fork/join pool, when its worker makes a managed blocking call then the pool " +
+            "compensates with a spare worker")
+    void givenASingleWorkerPool_whenItsWorkerMakesAManagedBlockingCall_thenThePoolCompensates() {
+        forkJoinPool = new ForkJoinPool(1);
+
+        final ForkJoinTask<?> blocking = forkJoinPool.submit(() -> {
+            blockingTasks.managedBlock(release::await);
+            return null;
+        });
+        awaitUntil(() -> blockingTasks.getStats(false).managedBlocks() == 1);
+
+        // without the compensation, the only worker would still be blocked and this task would never run
+        final ForkJoinTask<?> releasing = forkJoinPool.submit(release::countDown);
+
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            releasing.get();
+            blocking.get();
+        });
+        assertEquals(1, blockingTasks.getStats(false).managedBlocks());
+    }
+
+    @Test
+    @DisplayName("Given a call outside the fork/join pools, when it is managed then it just runs")
+    void givenACallOutsideTheForkJoinPools_whenItIsManaged_thenItJustRuns() throws InterruptedException {
+        final CountDownLatch ran = new CountDownLatch(1);
+
+        blockingTasks.managedBlock(ran::countDown);
+
+        assertEquals(0, ran.getCount());
+        assertEquals(0, blockingTasks.getStats(false).managedBlocks());
+    }
+
+    @Test
+    @DisplayName("Given a blocked worker and a joining one, when inspecting the workers then only the blocked one " +
+            "is counted")
+    void givenABlockedAndAJoiningWorker_whenInspectingTheWorkers_thenOnlyTheBlockedOneIsCounted() {
+        forkJoinPool = new ForkJoinPool(2, pool -> {
+            final ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            worker.setName(WORKER_PREFIX + worker.getPoolIndex());
+            return worker;
+        }, null, false);
+
+        final CountDownLatch blockedStarted = new CountDownLatch(1);
+        final ForkJoinTask<?> blocked = forkJoinPool.submit(() -> {
+            blockedStarted.countDown();
+            release.await();
+            return null;
+        });
+        assertTimeoutPreemptively(TIMEOUT, () -> blockedStarted.await());
+
+        final Thread[] joiningWorker = new Thread[1];
+        final ForkJoinTask<?> joining = forkJoinPool.submit(() -> {
+            joiningWorker[0] = Thread.currentThread();
+            blocked.join();
+        });
+        awaitUntil(() -> joiningWorker[0] != null && joiningWorker[0].getState() == Thread.State.WAITING);
+
+        assertEquals(1, BlockingTaskExecutor.countBlockedWorkers(WORKER_PREFIX));
+
+        release.countDown();
+        assertTimeoutPreemptively(TIMEOUT, () -> joining.get());
+    }
+
+    private static void awaitUntil(final BooleanSupplier condition) {
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            while (!condition.getAsBoolean()) {
+                Thread.sleep(1);
+            }
+        });
+    }
+}
@@ -0,0 +1,136 @@
+package net.safedata.java.advanced.training.service.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class SingleFlightTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final int CALLERS = 8;
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final AtomicInteger computations = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS + 1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Given concurrent callers for the same key, when executing then they share a single computation")
+    void givenConcurrentCallersForTheSameKey_whenExecuting_thenTheyShareASingleComputation() {
+        final List<Future<String>> callers = callConcurrently("tablet", () -> "tablets-" + computations.get());
+        release.countDown();
+
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            for (Future<String> caller : callers) {
+                assertEquals("tablets-1", caller.get());
+            }
+        });
+        assertEquals(1, computations.get());
+        assertEquals(CALLERS - 1, singleFlight.getStats().coalescedCalls());
+        assertEquals(0, singleFlight.getStats().inFlightKeys());
+
+        // the key was released, so the next call computes again
+        assertEquals("tablets-2", singleFlight.execute("tablet", () -> "tablets-" + computations.incrementAndGet()));
+    }
+
+    @Test
+    @DisplayName("Given a failing computation, when executing then all the waiting callers get its exception")
+    void givenAFailingComputation_whenExecuting_thenAllTheWaitingCallersGetItsException() {
+        final IllegalStateException failure = new IllegalStateException("The products cannot be built");
+        final List<Future<String>> callers = callConcurrently("tablet", () -> {
+            throw failure;
+        });
+        release.countDown();
+
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            for (Future<String> caller : callers) {
+                final ExecutionException exception = assertThrows(ExecutionException.class, caller::get);
+                assertSame(failure, exception.getCause());
+            }
+        });
+        assertEquals(1, computations.get());
+        assertEquals(0, singleFlight.getStats().inFlightKeys());
+
+        assertEquals("tablets", singleFlight.execute("tablet", () -> "tablets"));
+    }
+
+    @Test
+    @DisplayName("Given callers for different keys, when executing then their computations run in parallel")
+    void givenCallersForDifferentKeys_whenExecuting_thenTheComputationsRunInParallel() {
+        final CountDownLatch bothStarted = new CountDownLatch(2);
+        final List<Future<String>> callers = new ArrayList<>();
+        for (String key : List.of("tablet", "phone")) {
+            callers.add(executor.submit(() -> singleFlight.execute(key, () -> {
+                bothStarted.countDown();
+                await(bothStarted);
+                return key;
+            })));
+        }
+
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            assertEquals("tablet", callers.get(0).get());
+            assertEquals("phone", callers.get(1).get());
+        });
+        assertEquals(0, singleFlight.getStats().coalescedCalls());
+    }
+
+    // the first caller computes until the release, the others join it
+    private List<Future<String>> callConcurrently(final String key, final Supplier<String> result) {
+        final CountDownLatch computing = new CountDownLatch(1);
+        final Supplier<String> computation = () -> {
+            computations.incrementAndGet();
+            computing.countDown();
+            await(release);
+            return result.get();
+        };
+
+        final List<Future<String>> callers = new ArrayList<>();
+        callers.add(executor.submit(() -> singleFlight.execute(key, computation)));
+        assertTimeoutPreemptively(TIMEOUT, () -> computing.await());
+        for (int caller = 1; caller < CALLERS; caller++) {
+            callers.add(executor.submit(() -> singleFlight.execute(key, computation)));
+        }
+
+        awaitUntil(() -> singleFlight.getStats().coalescedCalls() == CALLERS - 1);
+        return callers;
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitUntil(final BooleanSupplier condition) {
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            while (!condition.getAsBoolean()) {
+                Thread.sleep(1);
+            }
+        });
+    }
+}
@@ -0,0 +1,90 @@
+package net.safedata.java.advanced.training.service.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadFanOutTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Test
+    @DisplayName("Given tasks completing out of order, when fanning them out then the results are in the tasks order")
+    void givenTasksCompletingOutOfOrder_whenFanningThemOut_thenTheResultsAreInTheTasksOrder() {
+        final VirtualThreadFanOut fanOut = new VirtualThreadFanOut(true, Duration.ofSeconds(5));
+
+        final List<Integer> results = fanOut.fanOut(10, index -> {
+            sleep(10 * (10 - index));
+            return index * index;
+        });
+
+        assertEquals(IntStream.range(0, 10).map(index -> index * index).boxed().toList(), results);
+    }
+
+    @Test
+    @DisplayName("Given a failing task, when fanning out then the fan-out fails right away and cancels the others")
+    void givenAFailingTask_whenFanningOut_thenTheFanOutFailsAndCancelsTheOthers() throws InterruptedException {
+        final VirtualThreadFanOut fanOut = new VirtualThreadFanOut(true, Duration.ofMinutes(1));
+        final CountDownLatch cancelled = new CountDownLatch(9);
+
+        // the failure is seen in completion order, not after the blocked tasks before it
+        final IllegalStateException exception = assertTimeoutPreemptively(TIMEOUT,
+                () -> assertThrows(IllegalStateException.class, () -> fanOut.fanOut(10, index -> {
+                    if (index == 5) {
+                        throw new IllegalArgumentException("The product " + index + " cannot be built");
+                    }
+                    awaitCancellation(cancelled);
+                    return index;
+                })));
+
+        assertEquals("A fan-out task has failed", exception.getMessage());
+        assertTrue(exception.getCause() instanceof IllegalArgumentException);
+        assertTrue(cancelled.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("Given a task missing the deadline, when fanning out then no partial result is returned")
+    void givenATaskMissingTheDeadline_whenFanningOut_thenNoPartialResultIsReturned() throws InterruptedException {
+        final VirtualThreadFanOut fanOut = new VirtualThreadFanOut(true, Duration.ofMillis(200));
+        final CountDownLatch cancelled = new CountDownLatch(1);
+
+        final IllegalStateException exception = assertTimeoutPreemptively(TIMEOUT,
+                () -> assertThrows(IllegalStateException.class, () -> fanOut.fanOut(5, index -> {
+                    if (index == 3) {
+                        awaitCancellation(cancelled);
+                    }
+                    return index;
+                })));
+
+        assertEquals("1 out of 5 fan-out tasks did not complete in 200 ms", exception.getMessage());
+        assertTrue(cancelled.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    // blocks until the task is interrupted by the cancellation of the fan-out
+    private static void awaitCancellation(final CountDownLatch cancelled) {
+        try {
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+        } catch (final InterruptedException e) {
+            cancelled.countDown();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package net.safedata.java.advanced.training.service.importer;
+
+import net.safedata.java.advanced.training.domain.model.ProductEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvChunkParserTest {
+
+    private record Row(long id, String name, double price) {}
+
+    private final ImportJob job = new ImportJob(1, "products.csv", 0);
+
+    @Test
+    @DisplayName("Given a chunk starting with a header, when it is the first chunk, then the header is skipped")
+    void givenAHeader_whenParsingTheFirstChunk_thenTheHeaderIsSkipped() {
+        final List<Row> rows = parse(true, "id,name,price\n1,Tablet,100.5\n2,Phone,99\n");
+
+        assertEquals(List.of(new Row(1, "Tablet", 100.5), new Row(2, "Phone", 99)), rows);
+        assertEquals(0, job.toProgress().rejectedLines());
+    }
+
+    @Test
+    @DisplayName("Given a chunk starting with a data line, when it is the first chunk, then the line is parsed")
+    void givenNoHeader_whenParsingTheFirstChunk_thenTheFirstLineIsParsed() {
+        final List<Row> rows = parse(true, "-1,Tablet,100\n2,Phone,99\n");
+
+        assertEquals(List.of(new Row(-1, "Tablet", 100), new Row(2, "Phone", 99)), rows);
+    }
+
+    @Test
+    @DisplayName("Given quoted names, when parsing, then the quotes are removed and the doubled ones unescaped")
+    void givenQuotedNames_whenParsing_thenTheNamesAreUnquoted() {
+        final List<Row> rows = parse(false, "1,\"Tablet, 10\"\"\",100\n2,\"\"\"Phone\"\"\",99\n3,\"\",1\n");
+
+        assertEquals(List.of(new Row(1, "Tablet, 10\"", 100), new Row(2, "\"Phone\"", 99), new Row(3, "", 1)),
+                rows);
+    }
+
+    @Test
+    @DisplayName("Given CRLF line ends and no trailing line end, when parsing, then every line is parsed")
+    void givenCrLfLinesWithoutATrailingLineEnd_whenParsing_thenAllTheLinesAreParsed() {
+        final List<Row> rows = parse(false, "1,Tablet,100\r\n\r\n2,Phone,+99.25");
+
+        assertEquals(List.of(new Row(1, "Tablet", 100), new Row(2, "Phone", 99.25)), rows);
+        assertEquals(2, job.toProgress().parsedRows());
+    }
+
+    @Test
+    @DisplayName("Given prices which are not plain short decimals, when parsing, then they are still parsed exactly")
+    void givenLongAndExponentPrices_whenParsing_thenThePricesAreExact() {
+        final List<Row> rows = parse(false, "1,Tablet,0.1234567890123456789\n2,Phone,1e3\n3,Laptop,12.50\n");
+
+        assertEquals(List.of(new Row(1, "Tablet", 0.1234567890123456789), new Row(2, "Phone", 1000),
+                new Row(3, "Laptop", 12.5)), rows);
+    }
+
+    @Test
+    @DisplayName("Given malformed lines, when parsing, then they are rejected and the valid ones parsed")
+    void givenMalformedLines_whenParsing_thenTheyAreRejected() {
+        final List<Row> rows = parse(false, "1,Tablet,100\nx,Phone,1\n2,Phone\n3,Laptop,\n4,Mouse,abc\n5,Pen,2\n");
+
+        assertEquals(List.of(new Row(1, "Tablet", 100), new Row(5, "Pen", 2)), rows);
+        assertEquals(4, job.toProgress().rejectedLines());
+        assertEquals(2, job.toProgress().parsedRows());
+    }
+
+    @Test
+    @DisplayName("Given a name longer than the table column, when parsing, then its line is rejected")
+    void givenANameLongerThanTheColumn_whenParsing_thenTheLineIsRejected() {
+        final String longestName = "n".repeat(ProductEntity.NAME_LENGTH);
+        final List<Row> rows = parse(false, "1," + longestName + ",100\n2," + longestName + "n,99\n3,Pen,2\n");
+
+        assertEquals(List.of(new Row(1, longestName, 100), new Row(3, "Pen", 2)), rows);
+        assertEquals(1, job.toProgress().rejectedLines());
+    }
+
+    @Test
+    @DisplayName("Given a chunk boundary, when the next line start is searched, then the split is line aligned")
+    void givenAChunkBoundary_whenSearchingTheNextLineStart_thenTheSplitIsLineAligned() throws IOException {
+        final String content = "1,Tablet,100\n2,Phone,99\n3,Laptop,1000";
+        final Path file = Files.createTempFile("products", ".csv");
+        try {
+            Files.writeString(file, content);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                assertEquals(13, ProductCsvImporter.nextLineStart(channel, 0));
+                assertEquals(13, ProductCsvImporter.nextLineStart(channel, 12));
+                assertEquals(24, ProductCsvImporter.nextLineStart(channel, 13));
+                assertEquals(content.length(), ProductCsvImporter.nextLineStart(channel, 30));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private List<Row> parse(final boolean skipHeader, final String content) {
+        final List<Row> rows = new ArrayList<>();
+        new CsvChunkParser(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)), job)
+                .parse(skipHeader, (id, name, price) -> rows.add(new Row(id, name, price)));
+        return rows;
+    }
+}
@@ -0,0 +1,199 @@
+package net.safedata.java.advanced.training.service.sales;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SalesBroadcasterTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration MIN_INTERVAL = Duration.ofMillis(100);
+
+    private final SalesLedger salesLedger = new SalesLedger();
+    private SalesBroadcaster salesBroadcaster;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (salesBroadcaster != null) {
+            salesBroadcaster.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Given earlier sales, when subscribing then the current snapshot is sent first")
+    void givenEarlierSales_whenSubscribing_thenTheCurrentSnapshotIsSentFirst() {
+        start(MIN_INTERVAL);
+        recordSales(3);
+
+        final RecordingSink subscriber = subscribe();
+
+        assertEquals(3, subscriber.snapshots.get(0).updates());
+        assertEquals(1, salesBroadcaster.getStats().subscribers());
+    }
+
+    @Test
+    @DisplayName("Given a burst of sales, when broadcasting then the changes are conflated, at most one per interval")
+    void givenABurstOfSales_whenBroadcasting_thenTheChangesAreConflatedAtMostOncePerInterval()
+            throws InterruptedException {
+        start(MIN_INTERVAL);
+        final RecordingSink subscriber = subscribe();
+
+        final int sales = 1_000;
+        for (int sale = 1; sale <= sales; sale++) {
+            salesLedger.record(1);
+            if (sale % 100 == 0) {
+                Thread.sleep(25);
+            }
+        }
+        awaitUntil(() -> subscriber.lastUpdates() == sales);
+
+        // each change either wakes a broadcast up or joins the pending one
+        final BroadcastStats stats = salesBroadcaster.getStats();
+        assertEquals(sales, stats.broadcasts() + stats.conflated());
+        assertTrue(stats.broadcasts() < 10, "Too many broadcasts: " + stats.broadcasts());
+
+        // the first snapshot is the one sent on subscribing, the others are broadcasts
+        for (int index = 2; index < subscriber.sendTimes.size(); index++) {
+            final long spacing = subscriber.sendTimes.get(index) - subscriber.sendTimes.get(index - 1);
+            assertTrue(spacing >= MIN_INTERVAL.toNanos(), "The broadcasts were only " + spacing + " ns apart");
+        }
+    }
+
+    @Test
+    @DisplayName("Given a slow subscriber, when sales happen during its send then it only gets the latest snapshot")
+    void givenASlowSubscriber_whenSalesHappenDuringItsSend_thenItOnlyGetsTheLatestSnapshot() {
+        start(Duration.ZERO);
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingSink slowSubscriber = new RecordingSink() {
+            @Override
+            public void send(final SalesSnapshot snapshot) throws IOException {
+                super.send(snapshot);
+                if (snapshot.updates() == 1) {
+                    sending.countDown();
+                    await(release);
+                }
+            }
+        };
+        salesBroadcaster.subscribe(slowSubscriber);
+        awaitUntil(() -> slowSubscriber.snapshots.size() == 1);
+
+        salesLedger.record(1);
+        assertTimeoutPreemptively(TIMEOUT, () -> sending.await());
+        recordSales(100);
+        release.countDown();
+
+        awaitUntil(() -> slowSubscriber.lastUpdates() == 101);
+        assertEquals(List.of(0L, 1L, 101L), slowSubscriber.snapshots.stream()
+                                                                  .map(SalesSnapshot::updates)
+                                                                  .toList());
+    }
+
+    @Test
+    @DisplayName("Given a failing subscriber, when broadcasting then it is dropped and the others get the changes")
+    void givenAFailingSubscriber_whenBroadcasting_thenItIsDropped() {
+        start(Duration.ZERO);
+        final RecordingSink failingSubscriber = new RecordingSink() {
+            @Override
+            public void send(final SalesSnapshot snapshot) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        salesBroadcaster.subscribe(failingSubscriber);
+        final RecordingSink subscriber = subscribe();
+
+        salesLedger.record(1);
+
+        awaitUntil(() -> subscriber.lastUpdates() == 1);
+        assertEquals("Broken pipe", failingSubscriber.failure.getMessage());
+        assertEquals(1, salesBroadcaster.getStats().subscribers());
+        assertEquals(1, salesBroadcaster.getStats().failures());
+    }
+
+    @Test
+    @DisplayName("Given subscribers, when closing then they are completed and no more snapshots are sent")
+    void givenSubscribers_whenClosing_thenTheyAreCompleted() throws InterruptedException {
+        start(Duration.ZERO);
+        final RecordingSink subscriber = subscribe();
+
+        salesBroadcaster.close();
+        salesLedger.record(1);
+
+        assertTrue(subscriber.completed);
+        assertEquals(0, salesBroadcaster.getStats().subscribers());
+        assertEquals(1, subscriber.snapshots.size());
+    }
+
+    private void start(final Duration minInterval) {
+        salesBroadcaster = new SalesBroadcaster(salesLedger, Duration.ofMinutes(1), minInterval);
+        salesBroadcaster.start();
+    }
+
+    // returns once the current snapshot was received
+    private RecordingSink subscribe() {
+        final RecordingSink subscriber = new RecordingSink();
+        salesBroadcaster.subscribe(subscriber);
+        awaitUntil(() -> !subscriber.snapshots.isEmpty());
+        return subscriber;
+    }
+
+    private void recordSales(final int sales) {
+        for (int sale = 0; sale < sales; sale++) {
+            salesLedger.record(1);
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitUntil(final BooleanSupplier condition) {
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            while (!condition.getAsBoolean()) {
+                Thread.sleep(1);
+            }
+        });
+    }
+
+    private static class RecordingSink implements SalesBroadcaster.SnapshotSink {
+        final List<SalesSnapshot> snapshots = new CopyOnWriteArrayList<>();
+        final List<Long> sendTimes = new CopyOnWriteArrayList<>();
+        volatile boolean completed;
+        volatile Throwable failure;
+
+        @Override
+        public void send(final SalesSnapshot snapshot) throws IOException {
+            sendTimes.add(System.nanoTime());
+            snapshots.add(snapshot);
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void fail(final Throwable error) {
+            failure = error;
+        }
+
+        long lastUpdates() {
+            return snapshots.isEmpty() ? -1 : snapshots.get(snapshots.size() - 1).updates();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package net.safedata.java.advanced.training.service.sales;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SalesLedgerTest {
+
+    private final SalesLedger salesLedger = new SalesLedger();
+
+    @Test
+    @DisplayName("Given recorded sales, when taking a snapshot then they are in the total and in both windows")
+    void givenRecordedSales_whenTakingASnapshot_thenTheyAreInTheTotalAndTheWindows() {
+        salesLedger.record(0.1);
+        salesLedger.record(0.2);
+        salesLedger.record(100);
+
+        final SalesSnapshot snapshot = salesLedger.getSnapshot();
+        assertEquals(100.3, snapshot.total());
+        assertEquals(100.3, snapshot.lastMinute());
+        assertEquals(100.3, snapshot.lastHour());
+        assertEquals(3, snapshot.updates());
+        assertEquals(3, salesLedger.getVersion());
+        assertEquals(100.3, salesLedger.getTotal());
+    }
+
+    @Test
+    @DisplayName("Given a listener, when recording sales then it is notified after every update")
+    void givenAListener_whenRecordingSales_thenItIsNotifiedAfterEveryUpdate() {
+        final AtomicInteger notifications = new AtomicInteger();
+        salesLedger.addListener(() -> assertEquals(notifications.incrementAndGet(), salesLedger.getVersion()));
+
+        for (int sale = 0; sale < 10; sale++) {
+            salesLedger.record(1);
+        }
+
+        assertEquals(10, notifications.get());
+    }
+
+    @Test
+    @DisplayName("Given concurrent writers, when taking snapshots meanwhile then every snapshot is consistent")
+    void givenConcurrentWriters_whenTakingSnapshotsMeanwhile_thenEverySnapshotIsConsistent() {
+        final int writers = 8;
+        final int salesPerWriter = 50_000;
+        final ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final AtomicBoolean writing = new AtomicBoolean(true);
+            final List<Future<?>> recorders = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                recorders.add(executor.submit(() -> {
+                    start.await();
+                    for (int sale = 0; sale < salesPerWriter; sale++) {
+                        salesLedger.record(1);
+                    }
+                    return null;
+                }));
+            }
+
+            // every sale is worth 1, so a snapshot holding a part of a sale would not match its updates count
+            final Future<Integer> reader = executor.submit(() -> {
+                start.await();
+                int snapshots = 0;
+                long previousUpdates = 0;
+                while (writing.get()) {
+                    final SalesSnapshot snapshot = salesLedger.getSnapshot();
+                    assertEquals(snapshot.updates(), snapshot.total());
+                    assertEquals(snapshot.total(), snapshot.lastHour());
+                    assertTrue(snapshot.updates() >= previousUpdates);
+                    previousUpdates = snapshot.updates();
+                    snapshots++;
+                }
+                return snapshots;
+            });
+
+            start.countDown();
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+                for (Future<?> recorder : recorders) {
+                    recorder.get();
+                }
+                writing.set(false);
+                assertTrue(reader.get() > 0);
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final SalesSnapshot snapshot = salesLedger.getSnapshot();
+        assertEquals(writers * salesPerWriter, snapshot.updates());
+        assertEquals(writers * salesPerWriter, snapshot.total());
+        assertEquals(writers * salesPerWriter, salesLedger.getTotal());
+    }
+}
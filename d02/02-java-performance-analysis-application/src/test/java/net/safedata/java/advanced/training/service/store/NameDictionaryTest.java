@@ -0,0 +1,62 @@
+package net.safedata.java.advanced.training.service.store;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class NameDictionaryTest {
+
+    private final NameDictionary dictionary = new NameDictionary();
+
+    @Test
+    @DisplayName("Given repeated names, when encoding them then the same name gets the same code")
+    void givenRepeatedNames_whenEncodingThem_thenTheSameNameGetsTheSameCode() {
+        final int tablet = dictionary.encode("Tablet");
+        final int phone = dictionary.encode("Phone");
+
+        assertEquals(tablet, dictionary.encode("Tablet"));
+        assertEquals("Tablet", dictionary.decode(tablet));
+        assertEquals("Phone", dictionary.decode(phone));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    @DisplayName("Given a name released by all its products, when encoding a new name then its code is recycled")
+    void givenANameReleasedByAllItsProducts_whenEncodingANewName_thenItsCodeIsRecycled() {
+        final int tablet = dictionary.encode("Tablet");
+        dictionary.encode("Tablet");
+
+        dictionary.release(tablet);
+        assertEquals(1, dictionary.size());
+        assertEquals("Tablet", dictionary.decode(tablet));
+
+        dictionary.release(tablet);
+        assertEquals(0, dictionary.size());
+        assertEquals(tablet, dictionary.encode("Phone"));
+        assertEquals("Phone", dictionary.decode(tablet));
+    }
+
+    @Test
+    @DisplayName("Given a missing name, when encoding it then it is kept as no name")
+    void givenAMissingName_whenEncodingIt_thenItIsKeptAsNoName() {
+        final int code = dictionary.encode(null);
+
+        assertEquals(NameDictionary.NO_NAME, code);
+        assertNull(dictionary.decode(code));
+        dictionary.release(code);
+        assertEquals(0, dictionary.size());
+    }
+
+    @Test
+    @DisplayName("Given many distinct names, when encoding them then the dictionary grows past its initial size")
+    void givenManyDistinctNames_whenEncodingThem_thenTheDictionaryGrows() {
+        for (int index = 0; index < 1000; index++) {
+            assertEquals(index, dictionary.encode("Product " + index));
+        }
+
+        assertEquals(1000, dictionary.size());
+        assertEquals("Product 999", dictionary.decode(999));
+    }
+}
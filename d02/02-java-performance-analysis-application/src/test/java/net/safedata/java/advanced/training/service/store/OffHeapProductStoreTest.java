@@ -0,0 +1,106 @@
+package net.safedata.java.advanced.training.service.store;
+
+import net.safedata.java.advanced.training.model.Product;
+import net.safedata.java.advanced.training.service.aggregation.PriceSummation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OffHeapProductStoreTest {
+
+    private final PriceSummation priceSummation = new PriceSummation(ForkJoinPool.commonPool(), 262144);
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    @DisplayName("Given a full store, when adding more products then the oldest ones are evicted around the ring")
+    void givenAFullStore_whenAddingMoreProducts_thenTheOldestAreEvictedAroundTheRing() {
+        final OffHeapProductStore store = new OffHeapProductStore(4, Duration.ZERO, priceSummation, clock);
+        for (int id = 1; id <= 10; id++) {
+            store.add(new Product(id, "Product " + (id % 3), id));
+        }
+
+        assertEquals(4, store.size());
+        assertEquals(7 + 8 + 9 + 10, store.sumPrices());
+        assertEquals(List.of(7, 8, 9, 10), ids(store));
+        assertEquals("Product 1", names(store).get(0));
+        assertEquals(3, store.getDistinctNames());
+    }
+
+    @Test
+    @DisplayName("Given a max age, when the products get older than it then they are evicted on the next read")
+    void givenAMaxAge_whenTheProductsGetOlder_thenTheyAreEvictedOnTheNextRead() {
+        final OffHeapProductStore store = new OffHeapProductStore(100, Duration.ofSeconds(10), priceSummation, clock);
+        store.add(new Product(1, "Tablet", 100));
+        clock.advance(Duration.ofSeconds(6));
+        store.add(new Product(2, "Phone", 50));
+
+        assertEquals(2, store.size());
+
+        clock.advance(Duration.ofSeconds(5));
+        assertEquals(1, store.size());
+        assertEquals(50, store.sumPrices());
+        assertEquals(List.of(2), ids(store));
+        assertEquals(1, store.getDistinctNames());
+
+        clock.advance(Duration.ofSeconds(10));
+        assertEquals(0, store.size());
+        assertEquals(0, store.sumPrices());
+    }
+
+    @Test
+    @DisplayName("Given an out of range capacity, when creating the store then it is rejected")
+    void givenAnOutOfRangeCapacity_whenCreatingTheStore_thenItIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new OffHeapProductStore(0, Duration.ZERO, priceSummation, clock));
+        assertThrows(IllegalArgumentException.class,
+                () -> new OffHeapProductStore(OffHeapProductStore.MAX_CAPACITY + 1, Duration.ZERO, priceSummation,
+                        clock));
+    }
+
+    private static List<Integer> ids(final ProductStore store) {
+        final List<Integer> ids = new ArrayList<>();
+        store.forEach(product -> ids.add(product.getId()));
+        return ids;
+    }
+
+    private static List<String> names(final ProductStore store) {
+        final List<String> names = new ArrayList<>();
+        store.forEach(product -> names.add(product.getName()));
+        return names;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(final Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}